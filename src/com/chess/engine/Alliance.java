@@ -24,6 +24,9 @@ public enum Alliance
                 public Player choosePlayer(WhitePlayer white_player, BlackPlayer black_player) {
                     return white_player;
                 }
+
+                @Override
+                public Alliance opposite() {  return BLACK;   }
             },
     BLACK
             {
@@ -43,6 +46,9 @@ public enum Alliance
                 public Player choosePlayer(WhitePlayer white_player, BlackPlayer black_player) {
                     return black_player;
                 }
+
+                @Override
+                public Alliance opposite() {  return WHITE;   }
             };
 
     public abstract int getDirection();
@@ -50,4 +56,5 @@ public enum Alliance
     public abstract boolean isWhite();
 
     public abstract Player choosePlayer(WhitePlayer white_player, BlackPlayer black_player);
+    public abstract Alliance opposite();
 }
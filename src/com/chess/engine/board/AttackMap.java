@@ -0,0 +1,76 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Every tile attacked by each alliance on one board, worked out once from the piece bitboards.
+ * "Is this tile attacked" is then a single bit test, and "who attacks this tile" a handful of
+ * table lookups, instead of a scan over the opponent's moves.
+ */
+public final class AttackMap
+{
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    private final long[] piece_bitboards;
+    private final long occupancy;
+    private final long[] attacked_tiles;
+
+    AttackMap(final long[] piece_bitboards, final long occupancy)
+    {
+        this.piece_bitboards = piece_bitboards;
+        this.occupancy = occupancy;
+        this.attacked_tiles = new long[Alliance.values().length];
+        for(final Alliance alliance : Alliance.values())
+            this.attacked_tiles[alliance.ordinal()] = calculateAttackedTiles(alliance);
+    }
+
+    private long calculateAttackedTiles(final Alliance alliance)
+    {
+        final int base = alliance.ordinal() * BitBoardUtils.NUM_PIECE_TYPES;
+        final long pawns = this.piece_bitboards[base + PAWN];
+        final long not_first_file = pawns & ~BitBoardUtils.FIRST_FILE_MASK;
+        final long not_eighth_file = pawns & ~BitBoardUtils.EIGHTH_FILE_MASK;
+        long attacks = alliance.isWhite() ? (not_first_file >>> 9) | (not_eighth_file >>> 7)
+                                          : (not_first_file << 7) | (not_eighth_file << 9);
+
+        for(long knights = this.piece_bitboards[base + KNIGHT]; knights != 0; knights = BitBoardUtils.clearFirstSquare(knights))
+            attacks |= PrecomputedAttacks.getKnightAttacks(BitBoardUtils.firstSquare(knights));
+        final long queens = this.piece_bitboards[base + QUEEN];
+        for(long diagonal = this.piece_bitboards[base + BISHOP] | queens; diagonal != 0; diagonal = BitBoardUtils.clearFirstSquare(diagonal))
+            attacks |= MagicBitBoards.getBishopAttacks(BitBoardUtils.firstSquare(diagonal), this.occupancy);
+        for(long straight = this.piece_bitboards[base + ROOK] | queens; straight != 0; straight = BitBoardUtils.clearFirstSquare(straight))
+            attacks |= MagicBitBoards.getRookAttacks(BitBoardUtils.firstSquare(straight), this.occupancy);
+        final long king = this.piece_bitboards[base + KING];
+        if(king != 0)
+            attacks |= PrecomputedAttacks.getKingAttacks(BitBoardUtils.firstSquare(king));
+        return attacks;
+    }
+
+    public long getAttackedTiles(final Alliance attacker)
+    {
+        return this.attacked_tiles[attacker.ordinal()];
+    }
+
+    public boolean isTileAttacked(final int tile_coordinate, final Alliance attacker)
+    {
+        return BitBoardUtils.isSet(this.attacked_tiles[attacker.ordinal()], tile_coordinate);
+    }
+
+    //Tiles of the attacker's pieces that attack the given tile
+    public long getAttackers(final int tile_coordinate, final Alliance attacker)
+    {
+        final int base = attacker.ordinal() * BitBoardUtils.NUM_PIECE_TYPES;
+        final long queens = this.piece_bitboards[base + QUEEN];
+        return (PrecomputedAttacks.getPawnAttacks(attacker.opposite(), tile_coordinate) & this.piece_bitboards[base + PAWN]) |
+               (PrecomputedAttacks.getKnightAttacks(tile_coordinate) & this.piece_bitboards[base + KNIGHT]) |
+               (PrecomputedAttacks.getKingAttacks(tile_coordinate) & this.piece_bitboards[base + KING]) |
+               (MagicBitBoards.getBishopAttacks(tile_coordinate, this.occupancy) & (this.piece_bitboards[base + BISHOP] | queens)) |
+               (MagicBitBoards.getRookAttacks(tile_coordinate, this.occupancy) & (this.piece_bitboards[base + ROOK] | queens));
+    }
+}
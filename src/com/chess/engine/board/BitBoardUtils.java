@@ -0,0 +1,94 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Bit i of a bitboard corresponds to tile coordinate i (0 = a8, 63 = h1), so
+ * masks line up with the coordinates used everywhere else in the engine.
+ */
+public final class BitBoardUtils
+{
+    public static final long EMPTY = 0L;
+    public static final int NUM_PIECE_TYPES = PieceType.values().length;
+    public static final int NUM_PIECE_BITBOARDS = NUM_PIECE_TYPES * Alliance.values().length;
+
+    public static final long FIRST_FILE_MASK = fileMask(0);
+    public static final long SECOND_FILE_MASK = fileMask(1);
+    public static final long SEVENTH_FILE_MASK = fileMask(6);
+    public static final long EIGHTH_FILE_MASK = fileMask(7);
+
+    public static final long FIRST_RANK_MASK = rankMask(BoardUtils.FIRST_RANK);
+    public static final long SECOND_RANK_MASK = rankMask(BoardUtils.SECOND_RANK);
+    public static final long SEVENTH_RANK_MASK = rankMask(BoardUtils.SEVENTH_RANK);
+    public static final long EIGHTH_RANK_MASK = rankMask(BoardUtils.EIGHTH_RANK);
+
+    //a8 (tile 0) is a light square
+    public static final long LIGHT_SQUARES_MASK = lightSquaresMask();
+
+    private BitBoardUtils()
+    {
+        throw new RuntimeException("BitBoardUtils class cannot be instantiated.");
+    }
+
+    private static long fileMask(final int file)
+    {
+        long mask = EMPTY;
+        for(int tile_coordinate = file; tile_coordinate < BoardUtils.NUM_TILES; tile_coordinate += BoardUtils.NUM_FILES)
+            mask |= squareMask(tile_coordinate);
+        return mask;
+    }
+
+    private static long rankMask(final boolean[] rank)
+    {
+        long mask = EMPTY;
+        for(int tile_coordinate = 0; tile_coordinate < BoardUtils.NUM_TILES; tile_coordinate++)
+        {
+            if(rank[tile_coordinate])
+                mask |= squareMask(tile_coordinate);
+        }
+        return mask;
+    }
+
+    private static long lightSquaresMask()
+    {
+        long mask = EMPTY;
+        for(int tile_coordinate = 0; tile_coordinate < BoardUtils.NUM_TILES; tile_coordinate++)
+        {
+            if((tile_coordinate / BoardUtils.NUM_FILES + tile_coordinate % BoardUtils.NUM_FILES) % 2 == 0)
+                mask |= squareMask(tile_coordinate);
+        }
+        return mask;
+    }
+
+    public static long squareMask(final int tile_coordinate)
+    {
+        return 1L << tile_coordinate;
+    }
+
+    public static boolean isSet(final long bitboard, final int tile_coordinate)
+    {
+        return (bitboard & squareMask(tile_coordinate)) != 0;
+    }
+
+    //Index of the lowest set bit, i.e. the first tile coordinate held by the bitboard
+    public static int firstSquare(final long bitboard)
+    {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    public static long clearFirstSquare(final long bitboard)
+    {
+        return bitboard & (bitboard - 1);
+    }
+
+    public static int bitCount(final long bitboard)
+    {
+        return Long.bitCount(bitboard);
+    }
+
+    public static int pieceIndex(final Alliance alliance, final PieceType piece_type)
+    {
+        return alliance.ordinal() * NUM_PIECE_TYPES + piece_type.ordinal();
+    }
+}
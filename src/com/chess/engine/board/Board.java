@@ -3,6 +3,7 @@ package com.chess.engine.board;
 import com.chess.engine.Alliance;
 import com.chess.engine.pieces.*;
 import com.chess.engine.player.BlackPlayer;
+import com.chess.engine.player.GameState;
 import com.chess.engine.player.Player;
 import com.chess.engine.player.WhitePlayer;
 import com.google.common.collect.ImmutableList;
@@ -12,14 +13,28 @@ import java.util.*;
 
 public class Board
 {
-    private final List<Tile> game_board;
+    //Bitboard core: one long per (alliance, piece type) plus occupancy masks
+    private final long[] piece_bitboards;
+    private final long white_occupancy;
+    private final long black_occupancy;
+    private final long all_occupancy;
+    //Mailbox kept next to the bitboards so tile queries can hand back the actual Piece objects
+    private final Piece[] board_pieces;
     private final Collection<Piece> white_pieces;
     private final Collection<Piece> black_pieces;
+    private final Pawn en_passant_pawn;
 
-    //A Board Has 2 Players
-    private final WhitePlayer white_player;
-    private final BlackPlayer black_player;
-    private final Player current_player;
+    private final Alliance next_player;
+    private final int castling_rights;
+    private final long zobrist_key;
+    private final long pawn_key;
+
+    //A Board Has 2 Players, built (together with all legal moves) on first access only
+    private WhitePlayer white_player;
+    private BlackPlayer black_player;
+    private volatile boolean players_initialised;
+    private volatile AttackMap attack_map;
+    private volatile MoveIndex move_index;
 
     @Override
     public String toString()
@@ -27,16 +42,82 @@ public class Board
         final StringBuilder s_builder = new StringBuilder();
         for(int i=0; i<BoardUtils.NUM_TILES; i++)
         {
-            final String tile_text = this.game_board.get(i).toString();
+            final String tile_text = getTile(i).toString();
             s_builder.append(String.format("%3s", tile_text));
             if((i+1) % BoardUtils.NUM_FILES == 0)    s_builder.append("\n");
         }
         return s_builder.toString();
     }
 
+    @Override
+    public int hashCode()
+    {
+        return (int) (this.zobrist_key ^ (this.zobrist_key >>> 32));
+    }
+
+    //Key first: unequal keys settle almost every comparison; the rest guards against key collisions
+    @Override
+    public boolean equals(final Object other)
+    {
+        if(this == other)   return true;
+        if(!(other instanceof Board))   return false;
+        final Board other_board = (Board) other;
+        return this.zobrist_key == other_board.zobrist_key &&
+               this.next_player == other_board.next_player &&
+               this.castling_rights == other_board.castling_rights &&
+               getEnPassantCoordinate() == other_board.getEnPassantCoordinate() &&
+               Arrays.equals(this.piece_bitboards, other_board.piece_bitboards);
+    }
+
+    private int getEnPassantCoordinate()
+    {
+        return this.en_passant_pawn == null ? -1 : this.en_passant_pawn.getPiecePosition();
+    }
+
+    public long getZobristKey()
+    {
+        return this.zobrist_key;
+    }
+
+    public long getPawnKey()
+    {
+        return this.pawn_key;
+    }
+
+    public int getCastlingRights()
+    {
+        return this.castling_rights;
+    }
+
     public Tile getTile(int tile_coordinate)
     {
-        return game_board.get(tile_coordinate);
+        return Tile.createTile(tile_coordinate, this.board_pieces[tile_coordinate]);
+    }
+
+    public Piece getPiece(final int tile_coordinate)
+    {
+        return this.board_pieces[tile_coordinate];
+    }
+
+    public long getPieceBitBoard(final Alliance alliance, final Piece.PieceType piece_type)
+    {
+        return this.piece_bitboards[BitBoardUtils.pieceIndex(alliance, piece_type)];
+    }
+
+    //The board's own array, for readers in this package that must not modify it
+    long[] getPieceBitBoards()
+    {
+        return this.piece_bitboards;
+    }
+
+    public long getOccupancy(final Alliance alliance)
+    {
+        return alliance.isWhite() ? this.white_occupancy : this.black_occupancy;
+    }
+
+    public long getAllOccupancy()
+    {
+        return this.all_occupancy;
     }
 
     public Collection<Piece> getBlackPieces() {
@@ -47,24 +128,111 @@ public class Board
         return white_pieces;
     }
 
-    public Player getWhitePlayer() {    return white_player;    }
+    public Pawn getEnPassantPawn() {
+        return en_passant_pawn;
+    }
+
+    public Player getWhitePlayer() {
+        initialisePlayers();
+        return white_player;
+    }
+
+    public Player getBlackPlayer() {
+        initialisePlayers();
+        return black_player;
+    }
+
+    public Player getCurrentPlayer() {
+        initialisePlayers();
+        return this.next_player.choosePlayer(this.white_player, this.black_player);
+    }
 
-    public Player getBlackPlayer() {    return black_player;    }
+    //Built on first use without locking; two racing threads would just build identical maps
+    public AttackMap getAttackMap() {
+        AttackMap attack_map = this.attack_map;
+        if(attack_map == null)
+        {
+            attack_map = new AttackMap(this.piece_bitboards, this.all_occupancy);
+            this.attack_map = attack_map;
+        }
+        return attack_map;
+    }
 
-    public Player getCurrentPlayer() {  return current_player;  }
+    //Side to move, answered without generating any moves
+    public Alliance getCurrentPlayerAlliance() {
+        return this.next_player;
+    }
 
     private Board(final Builder builder)  //CONSTRUCTOR
     {
-        this.game_board = createGameBoard(builder);
-        this.white_pieces = calculateActivePieces(game_board, Alliance.WHITE);
-        this.black_pieces = calculateActivePieces(game_board, Alliance.BLACK);
+        this.board_pieces = builder.board_config.clone();
+        this.piece_bitboards = new long[BitBoardUtils.NUM_PIECE_BITBOARDS];
+        long white_occupancy = BitBoardUtils.EMPTY;
+        long black_occupancy = BitBoardUtils.EMPTY;
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final Piece piece = this.board_pieces[i];
+            if(piece == null)   continue;
+
+            final long square = BitBoardUtils.squareMask(i);
+            this.piece_bitboards[BitBoardUtils.pieceIndex(piece.getPieceAlliance(), piece.getPieceType())] |= square;
+            if(piece.getPieceAlliance().isWhite())
+                white_occupancy |= square;
+            else
+                black_occupancy |= square;
+        }
+        this.white_occupancy = white_occupancy;
+        this.black_occupancy = black_occupancy;
+        this.all_occupancy = white_occupancy | black_occupancy;
+
+        this.white_pieces = calculateActivePieces(this.white_occupancy);
+        this.black_pieces = calculateActivePieces(this.black_occupancy);
+        this.en_passant_pawn = builder.en_passant_pawn;
+        this.next_player = builder.next_player;
+        this.castling_rights = calculateCastlingRights();
+        this.zobrist_key = builder.has_zobrist_key ? builder.zobrist_key : Zobrist.calculateKey(this);
+        this.pawn_key = Zobrist.calculatePawnKey(getPieceBitBoard(Alliance.WHITE, Piece.PieceType.PAWN),
+                                                 getPieceBitBoard(Alliance.BLACK, Piece.PieceType.PAWN));
+    }
+
+    //Castling rights follow the first-move flags of the kings and of the rooks on their home tiles
+    private int calculateCastlingRights()
+    {
+        int rights = 0;
+        if(isUnmoved(60, Piece.PieceType.KING, Alliance.WHITE))
+        {
+            if(isUnmoved(63, Piece.PieceType.ROOK, Alliance.WHITE))  rights |= BoardUtils.WHITE_KING_SIDE_CASTLE;
+            if(isUnmoved(56, Piece.PieceType.ROOK, Alliance.WHITE))  rights |= BoardUtils.WHITE_QUEEN_SIDE_CASTLE;
+        }
+        if(isUnmoved(4, Piece.PieceType.KING, Alliance.BLACK))
+        {
+            if(isUnmoved(7, Piece.PieceType.ROOK, Alliance.BLACK))   rights |= BoardUtils.BLACK_KING_SIDE_CASTLE;
+            if(isUnmoved(0, Piece.PieceType.ROOK, Alliance.BLACK))   rights |= BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+        }
+        return rights;
+    }
+
+    private boolean isUnmoved(final int tile_coordinate, final Piece.PieceType piece_type, final Alliance alliance)
+    {
+        final Piece piece = this.board_pieces[tile_coordinate];
+        return piece != null && piece.getPieceType() == piece_type && piece.getPieceAlliance() == alliance && piece.isFirstMove();
+    }
+
+    //Double-checked so concurrent readers of a shared Board generate the moves exactly once
+    private void initialisePlayers()
+    {
+        if(this.players_initialised)    return;
+        synchronized(this)
+        {
+            if(this.players_initialised)    return;
 
-        final Collection<Move> white_standard_legal_moves = calculateLegalMoves(this.white_pieces);
-        final Collection<Move> black_standard_legal_moves = calculateLegalMoves(this.black_pieces);
+            final Collection<Move> white_standard_legal_moves = calculateLegalMoves(this.white_pieces);
+            final Collection<Move> black_standard_legal_moves = calculateLegalMoves(this.black_pieces);
 
-        this.white_player = new WhitePlayer(this, white_standard_legal_moves, black_standard_legal_moves);
-        this.black_player = new BlackPlayer(this, white_standard_legal_moves, black_standard_legal_moves);
-        this.current_player = builder.next_player.choosePlayer(this.white_player,this.black_player);
+            this.white_player = new WhitePlayer(this, white_standard_legal_moves);
+            this.black_player = new BlackPlayer(this, black_standard_legal_moves);
+            this.players_initialised = true;
+        }
     }
 
     private Collection<Move> calculateLegalMoves(final Collection<Piece> pieces)
@@ -76,28 +244,14 @@ public class Board
         return ImmutableList.copyOf(legal_moves);
     }
 
-    private static Collection<Piece> calculateActivePieces(final List<Tile> game_board, final Alliance alliance)
-    {
-        final List<Piece> active_pieces = new ArrayList<>();
-        for(final Tile tile : game_board)
-        {
-            if(tile.isOccupied())
-            {
-                final Piece piece = tile.getPiece();
-                if(piece.getPieceAlliance() == alliance)
-                    active_pieces.add(piece);
-            }
-        }
-        return ImmutableList.copyOf(active_pieces);
-    }
-
-    private static List<Tile> createGameBoard(Builder builder)  //Returns A Board Given Builder Object(using board_config)
+    private Collection<Piece> calculateActivePieces(final long occupancy)
     {
-        final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
-        for(int i=0;i<BoardUtils.NUM_TILES;i++)
-            tiles[i] = Tile.createTile(i, builder.board_config.get(i));
+        final Piece[] active_pieces = new Piece[BitBoardUtils.bitCount(occupancy)];
+        int index = 0;
+        for(long remaining = occupancy; remaining != 0; remaining = BitBoardUtils.clearFirstSquare(remaining))
+            active_pieces[index++] = this.board_pieces[BitBoardUtils.firstSquare(remaining)];
 
-        return ImmutableList.copyOf(tiles);
+        return ImmutableList.copyOf(active_pieces);
     }
 
     public static Board createStandardBoard()   //Returns a Builder Object(with standard board_config)
@@ -105,74 +259,136 @@ public class Board
         final Builder builder = new Builder();
 
         //Black Layout
-        builder.setPiece(new Rook(0, Alliance.BLACK));
-        builder.setPiece(new Knight(1, Alliance.BLACK));
-        builder.setPiece(new Bishop(2, Alliance.BLACK));
-        builder.setPiece(new Queen(3, Alliance.BLACK));
-        builder.setPiece(new King(4, Alliance.BLACK));
-        builder.setPiece(new Bishop(5, Alliance.BLACK));
-        builder.setPiece(new Knight(6, Alliance.BLACK));
-        builder.setPiece(new Rook(7, Alliance.BLACK));
-        builder.setPiece(new Pawn(8, Alliance.BLACK));
-        builder.setPiece(new Pawn(9, Alliance.BLACK));
-        builder.setPiece(new Pawn(10, Alliance.BLACK));
-        builder.setPiece(new Pawn(11, Alliance.BLACK));
-        builder.setPiece(new Pawn(12, Alliance.BLACK));
-        builder.setPiece(new Pawn(13, Alliance.BLACK));
-        builder.setPiece(new Pawn(14, Alliance.BLACK));
-        builder.setPiece(new Pawn(15, Alliance.BLACK));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.BLACK, 0, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.BLACK, 1, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.BLACK, 2, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.QUEEN, Alliance.BLACK, 3, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KING, Alliance.BLACK, 4, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.BLACK, 5, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.BLACK, 6, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.BLACK, 7, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 8, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 9, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 10, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 11, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 12, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 13, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 14, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 15, true));
 
         //White Layout
-        builder.setPiece(new Pawn(48, Alliance.WHITE));
-        builder.setPiece(new Pawn(49, Alliance.WHITE));
-        builder.setPiece(new Pawn(50, Alliance.WHITE));
-        builder.setPiece(new Pawn(51, Alliance.WHITE));
-        builder.setPiece(new Pawn(52, Alliance.WHITE));
-        builder.setPiece(new Pawn(53, Alliance.WHITE));
-        builder.setPiece(new Pawn(54, Alliance.WHITE));
-        builder.setPiece(new Pawn(55, Alliance.WHITE));
-        builder.setPiece(new Rook(56, Alliance.WHITE));
-        builder.setPiece(new Knight(57, Alliance.WHITE));
-        builder.setPiece(new Bishop(58, Alliance.WHITE));
-        builder.setPiece(new Queen(59, Alliance.WHITE));
-        builder.setPiece(new King(60, Alliance.WHITE));
-        builder.setPiece(new Bishop(61, Alliance.WHITE));
-        builder.setPiece(new Knight(62, Alliance.WHITE));
-        builder.setPiece(new Rook(63, Alliance.WHITE));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 48, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 49, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 50, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 51, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 52, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 53, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 54, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 55, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.WHITE, 56, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.WHITE, 57, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.WHITE, 58, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.QUEEN, Alliance.WHITE, 59, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KING, Alliance.WHITE, 60, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.WHITE, 61, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.WHITE, 62, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.WHITE, 63, true));
 
         builder.setNextPlayer(Alliance.WHITE);
 
         return new Board(builder);
     }
 
+    //Same lazy, lock-free pattern as getAttackMap
+    MoveIndex getMoveIndex() {
+        MoveIndex move_index = this.move_index;
+        if(move_index == null)
+        {
+            move_index = new MoveIndex(getAllLegalMoves());
+            this.move_index = move_index;
+        }
+        return move_index;
+    }
+
+    public GameState getGameState() {
+        return getCurrentPlayer().getGameState();
+    }
+
+    //Neither side can mate: bare kings plus at most one minor piece, or only bishops all on one colour
+    public boolean hasInsufficientMaterial() {
+        long heavy_pieces = BitBoardUtils.EMPTY;
+        long knights = BitBoardUtils.EMPTY;
+        long bishops = BitBoardUtils.EMPTY;
+        for(final Alliance alliance : Alliance.values())
+        {
+            heavy_pieces |= getPieceBitBoard(alliance, Piece.PieceType.PAWN) |
+                            getPieceBitBoard(alliance, Piece.PieceType.ROOK) |
+                            getPieceBitBoard(alliance, Piece.PieceType.QUEEN);
+            knights |= getPieceBitBoard(alliance, Piece.PieceType.KNIGHT);
+            bishops |= getPieceBitBoard(alliance, Piece.PieceType.BISHOP);
+        }
+        if(heavy_pieces != 0)
+            return false;
+        if(BitBoardUtils.bitCount(knights | bishops) <= 1)
+            return true;
+        return knights == 0 && ((bishops & BitBoardUtils.LIGHT_SQUARES_MASK) == 0 || (bishops & ~BitBoardUtils.LIGHT_SQUARES_MASK) == 0);
+    }
+
     public Iterable<Move> getAllLegalMoves() {
-        return Iterables.unmodifiableIterable(Iterables.concat(this.white_player.getLegalMoves(), this.black_player.getLegalMoves()));
+        return Iterables.unmodifiableIterable(Iterables.concat(getWhitePlayer().getLegalMoves(), getBlackPlayer().getLegalMoves()));
     }
 
 
     public static class Builder
     {
-        Map<Integer, Piece> board_config;
+        final Piece[] board_config;
         Alliance next_player;
         Pawn en_passant_pawn;
+        long zobrist_key;
+        boolean has_zobrist_key;
 
         public Builder()
         {
-            this.board_config = new HashMap<>();
+            this.board_config = new Piece[BoardUtils.NUM_TILES];
+        }
+
+        //Starts from the piece layout of an existing board; side to move and en passant are not copied
+        public Builder(final Board board)
+        {
+            this.board_config = board.board_pieces.clone();
         }
 
         public Builder setPiece(final Piece piece)
         {
-            this.board_config.put(piece.getPiecePosition(), piece);
+            this.board_config[piece.getPiecePosition()] = piece;
+            return this;
+        }
+
+        public Builder removePiece(final int tile_coordinate)
+        {
+            this.board_config[tile_coordinate] = null;
             return this;
         }
 
+        public Piece getPiece(final int tile_coordinate)
+        {
+            return this.board_config[tile_coordinate];
+        }
+
         public Builder setNextPlayer(final Alliance next_player)
         {
             this.next_player = next_player;
             return this;
         }
 
+        //Key carried over incrementally by a move; boards built without one get a full recomputation
+        public Builder setZobristKey(final long zobrist_key)
+        {
+            this.zobrist_key = zobrist_key;
+            this.has_zobrist_key = true;
+            return this;
+        }
+
         public Board build()
         {
             return new Board(this);
@@ -24,6 +24,16 @@ public class BoardUtils
 
     public static final int START_TILE_INDEX = 0;
 
+    //Castling rights as a 4 bit set
+    public static final int WHITE_KING_SIDE_CASTLE = 1;
+    public static final int WHITE_QUEEN_SIDE_CASTLE = 2;
+    public static final int BLACK_KING_SIDE_CASTLE = 4;
+    public static final int BLACK_QUEEN_SIDE_CASTLE = 8;
+    public static final int ALL_CASTLING_RIGHTS = 15;
+
+    //Castling rights that survive a move touching the given tile (king or rook home squares clear theirs)
+    private static final int[] CASTLING_RIGHTS_MASK = initCastlingRightsMask();
+
     public static final List<String> ALGEBRAIC_NOTATION = init_ALGEBRAIC_NOTATION();
     public static final Map<String, Integer> POSITION_TO_COORDINATE = init_POSITION_TO_COORDINATE();
 
@@ -52,6 +62,19 @@ public class BoardUtils
         return file;
     }
 
+    private static int[] initCastlingRightsMask()
+    {
+        final int[] mask = new int[NUM_TILES];
+        Arrays.fill(mask, ALL_CASTLING_RIGHTS);
+        mask[0] &= ~BLACK_QUEEN_SIDE_CASTLE;
+        mask[4] &= ~(BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE);
+        mask[7] &= ~BLACK_KING_SIDE_CASTLE;
+        mask[56] &= ~WHITE_QUEEN_SIDE_CASTLE;
+        mask[60] &= ~(WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE);
+        mask[63] &= ~WHITE_KING_SIDE_CASTLE;
+        return mask;
+    }
+
     private static Map<String, Integer> init_POSITION_TO_COORDINATE() {
         final Map<String, Integer> positionToCoordinate = new HashMap<>();
         for (int i = START_TILE_INDEX; i < NUM_TILES; i++) {
@@ -89,4 +112,13 @@ public class BoardUtils
     public static int getCoordinateAtPosition(final String position) {
         return POSITION_TO_COORDINATE.get(position);
     }
+
+    public static int getCastlingRightsAfterMove(final int castling_rights, final int current_coordinate, final int destination_coordinate) {
+        return castling_rights & CASTLING_RIGHTS_MASK[current_coordinate] & CASTLING_RIGHTS_MASK[destination_coordinate];
+    }
+
+    //Rights that are lost once a piece leaves (or is captured on) the given tile
+    public static int getCastlingRightsOfTile(final int tile_coordinate) {
+        return ~CASTLING_RIGHTS_MASK[tile_coordinate] & ALL_CASTLING_RIGHTS;
+    }
 }
@@ -0,0 +1,161 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Conversion between Board and Forsyth-Edwards Notation. Castling rights are carried by the
+ * first-move flags of the kings and rooks, and the en-passant tile by the pawn that jumped,
+ * so those fields map onto the pieces rather than onto separate board state. The move
+ * counters are not tracked by Board and are written out as "0 1".
+ */
+public final class FenUtilities
+{
+    private FenUtilities()
+    {
+        throw new RuntimeException("FenUtilities class cannot be instantiated.");
+    }
+
+    public static Board createGameFromFEN(final String fen_string)
+    {
+        final String[] fields = fen_string.trim().split("\\s+");
+        if(fields.length < 4)
+            throw new RuntimeException("Invalid FEN string: " + fen_string);
+
+        final String castling = fields[2];
+        final Board.Builder builder = new Board.Builder();
+        int tile_coordinate = 0;
+        for(final char symbol : fields[0].toCharArray())
+        {
+            if(symbol == '/')
+                continue;
+            if(Character.isDigit(symbol))
+            {
+                tile_coordinate += symbol - '0';
+                continue;
+            }
+            if(tile_coordinate >= BoardUtils.NUM_TILES)
+                throw new RuntimeException("Invalid FEN piece placement: " + fields[0]);
+            final Alliance alliance = Character.isUpperCase(symbol) ? Alliance.WHITE : Alliance.BLACK;
+            final PieceType piece_type = getPieceType(symbol);
+            builder.setPiece(Piece.createPiece(piece_type, alliance, tile_coordinate,
+                                               isFirstMove(piece_type, alliance, tile_coordinate, castling)));
+            tile_coordinate++;
+        }
+        if(tile_coordinate != BoardUtils.NUM_TILES)
+            throw new RuntimeException("Invalid FEN piece placement: " + fields[0]);
+
+        final Alliance next_player;
+        if(fields[1].equals("w"))
+            next_player = Alliance.WHITE;
+        else if(fields[1].equals("b"))
+            next_player = Alliance.BLACK;
+        else
+            throw new RuntimeException("Invalid FEN side to move: " + fields[1]);
+        builder.setNextPlayer(next_player);
+
+        if(!fields[3].equals("-"))
+        {
+            //The pawn that just jumped stands one tile past the en-passant target, seen from the side to move
+            final int en_passant_pawn_coordinate = BoardUtils.getCoordinateAtPosition(fields[3]) -
+                                                   next_player.getDirection() * BoardUtils.NUM_FILES;
+            final Piece en_passant_pawn = builder.getPiece(en_passant_pawn_coordinate);
+            if(en_passant_pawn == null || en_passant_pawn.getPieceType() != PieceType.PAWN)
+                throw new RuntimeException("Invalid FEN en passant tile: " + fields[3]);
+            builder.setEnPassantPawn((Pawn) en_passant_pawn);
+        }
+        return builder.build();
+    }
+
+    public static String createFENFromGame(final Board board)
+    {
+        return calculateBoardText(board) + " " +
+               (board.getCurrentPlayerAlliance().isWhite() ? "w" : "b") + " " +
+               calculateCastleText(board.getCastlingRights()) + " " +
+               calculateEnPassantText(board) + " 0 1";
+    }
+
+    private static PieceType getPieceType(final char symbol)
+    {
+        switch(Character.toUpperCase(symbol))
+        {
+            case 'P':   return PieceType.PAWN;
+            case 'N':   return PieceType.KNIGHT;
+            case 'B':   return PieceType.BISHOP;
+            case 'R':   return PieceType.ROOK;
+            case 'Q':   return PieceType.QUEEN;
+            case 'K':   return PieceType.KING;
+            default:    throw new RuntimeException("Invalid FEN piece: " + symbol);
+        }
+    }
+
+    //Kings and rooks keep their first-move flag only while the matching castling right is listed
+    private static boolean isFirstMove(final PieceType piece_type, final Alliance alliance,
+                                       final int tile_coordinate, final String castling)
+    {
+        final boolean white = alliance.isWhite();
+        switch(piece_type)
+        {
+            case PAWN:
+                return white ? BoardUtils.SECOND_RANK[tile_coordinate] : BoardUtils.SEVENTH_RANK[tile_coordinate];
+            case KING:
+                return tile_coordinate == (white ? 60 : 4) &&
+                       (castling.indexOf(white ? 'K' : 'k') >= 0 || castling.indexOf(white ? 'Q' : 'q') >= 0);
+            case ROOK:
+                if(tile_coordinate == (white ? 63 : 7))
+                    return castling.indexOf(white ? 'K' : 'k') >= 0;
+                if(tile_coordinate == (white ? 56 : 0))
+                    return castling.indexOf(white ? 'Q' : 'q') >= 0;
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static String calculateBoardText(final Board board)
+    {
+        final StringBuilder s_builder = new StringBuilder();
+        int empty_tiles = 0;
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final Piece piece = board.getPiece(i);
+            if(piece == null)
+                empty_tiles++;
+            else
+            {
+                if(empty_tiles > 0)     s_builder.append(empty_tiles);
+                empty_tiles = 0;
+                final String symbol = piece.getPieceType().toString();
+                s_builder.append(piece.getPieceAlliance().isWhite() ? symbol : symbol.toLowerCase());
+            }
+            if((i+1) % BoardUtils.NUM_FILES == 0)
+            {
+                if(empty_tiles > 0)     s_builder.append(empty_tiles);
+                empty_tiles = 0;
+                if(i != BoardUtils.NUM_TILES - 1)   s_builder.append('/');
+            }
+        }
+        return s_builder.toString();
+    }
+
+    private static String calculateCastleText(final int castling_rights)
+    {
+        final StringBuilder s_builder = new StringBuilder();
+        if((castling_rights & BoardUtils.WHITE_KING_SIDE_CASTLE) != 0)    s_builder.append('K');
+        if((castling_rights & BoardUtils.WHITE_QUEEN_SIDE_CASTLE) != 0)   s_builder.append('Q');
+        if((castling_rights & BoardUtils.BLACK_KING_SIDE_CASTLE) != 0)    s_builder.append('k');
+        if((castling_rights & BoardUtils.BLACK_QUEEN_SIDE_CASTLE) != 0)   s_builder.append('q');
+        return s_builder.length() == 0 ? "-" : s_builder.toString();
+    }
+
+    private static String calculateEnPassantText(final Board board)
+    {
+        final Pawn en_passant_pawn = board.getEnPassantPawn();
+        if(en_passant_pawn == null)
+            return "-";
+        return BoardUtils.getPositionAtCoordinate(en_passant_pawn.getPiecePosition() -
+                                                  en_passant_pawn.getPieceAlliance().getDirection() * BoardUtils.NUM_FILES);
+    }
+}
@@ -0,0 +1,94 @@
+package com.chess.engine.board;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of MoveEncoding ints. Meant to be allocated once per search ply and
+ * cleared between uses, so generating moves into it does not allocate.
+ */
+public final class IntMoveList
+{
+    //Enough for any legal chess position (the known maximum is 218 moves)
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public IntMoveList()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntMoveList(final int capacity)
+    {
+        this.moves = new int[capacity];
+        this.size = 0;
+    }
+
+    public void add(final int move)
+    {
+        if(this.size == this.moves.length)
+            this.moves = Arrays.copyOf(this.moves, this.size * 2);
+        this.moves[this.size++] = move;
+    }
+
+    public int get(final int index)
+    {
+        return this.moves[index];
+    }
+
+    public void set(final int index, final int move)
+    {
+        this.moves[index] = move;
+    }
+
+    public void swap(final int first, final int second)
+    {
+        final int move = this.moves[first];
+        this.moves[first] = this.moves[second];
+        this.moves[second] = move;
+    }
+
+    public boolean contains(final int move)
+    {
+        for(int i=0; i<this.size; i++)
+        {
+            if(this.moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    //Drops every move from the index onwards
+    public void truncate(final int size)
+    {
+        this.size = size;
+    }
+
+    public void clear()
+    {
+        this.size = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder s_builder = new StringBuilder("[");
+        for(int i=0; i<this.size; i++)
+        {
+            if(i > 0)   s_builder.append(", ");
+            s_builder.append(MoveEncoding.toString(this.moves[i]));
+        }
+        return s_builder.append("]").toString();
+    }
+}
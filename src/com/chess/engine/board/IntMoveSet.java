@@ -0,0 +1,61 @@
+package com.chess.engine.board;
+
+/**
+ * Open-addressed hash set of MoveEncoding ints. MoveEncoding.NULL_MOVE (0) is never a real
+ * move, so it doubles as the empty-slot marker and contains() touches nothing but an int[].
+ */
+public final class IntMoveSet
+{
+    private final int[] slots;
+    private final int index_mask;
+    private int size;
+
+    //expected_size is the number of moves that will be added; the table stays at most half full
+    public IntMoveSet(final int expected_size)
+    {
+        final int capacity = Integer.highestOneBit(Math.max(expected_size, 1) * 2) * 2;
+        this.slots = new int[capacity];
+        this.index_mask = capacity - 1;
+        this.size = 0;
+    }
+
+    private int calculateSlot(final int move)
+    {
+        return (move * 0x9E3779B1 >>> 16) & this.index_mask;
+    }
+
+    public boolean add(final int move)
+    {
+        if(move == MoveEncoding.NULL_MOVE)
+            throw new IllegalArgumentException("The null move cannot be added to an IntMoveSet");
+        if((this.size + 1) * 2 > this.slots.length)
+            throw new IllegalStateException("IntMoveSet is full");
+        int slot = calculateSlot(move);
+        while(this.slots[slot] != MoveEncoding.NULL_MOVE)
+        {
+            if(this.slots[slot] == move)
+                return false;
+            slot = (slot + 1) & this.index_mask;
+        }
+        this.slots[slot] = move;
+        this.size++;
+        return true;
+    }
+
+    public boolean contains(final int move)
+    {
+        if(move == MoveEncoding.NULL_MOVE)
+            return false;
+        for(int slot = calculateSlot(move); this.slots[slot] != MoveEncoding.NULL_MOVE; slot = (slot + 1) & this.index_mask)
+        {
+            if(this.slots[slot] == move)
+                return true;
+        }
+        return false;
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+}
@@ -0,0 +1,170 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Works out once per position which enemy pieces give check to one side's king, which of its
+ * own pieces are pinned and which tiles a move has to land on to answer a check. With those
+ * masks a pseudo-legal move is kept or dropped by a few bit tests, without executing it.
+ */
+public final class LegalMoveGenerator
+{
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    private final long[] piece_bitboards;
+    private final Alliance alliance;
+    private final int enemy_base;
+    private final long occupancy;
+    private final int king_square;
+    private final long checkers;
+    private final long pinned;
+    private final long evasion_mask;
+
+    //Reads the board's own bitboards, which are never written to here
+    public LegalMoveGenerator(final Board board, final Alliance alliance)
+    {
+        this(board.getPieceBitBoards(), alliance);
+    }
+
+    LegalMoveGenerator(final long[] piece_bitboards, final Alliance alliance)
+    {
+        this.piece_bitboards = piece_bitboards;
+        this.alliance = alliance;
+        this.enemy_base = alliance.opposite().ordinal() * BitBoardUtils.NUM_PIECE_TYPES;
+
+        final int own_base = alliance.ordinal() * BitBoardUtils.NUM_PIECE_TYPES;
+        long own = BitBoardUtils.EMPTY;
+        long enemy = BitBoardUtils.EMPTY;
+        for(int i=0; i<BitBoardUtils.NUM_PIECE_TYPES; i++)
+        {
+            own |= piece_bitboards[own_base + i];
+            enemy |= piece_bitboards[this.enemy_base + i];
+        }
+        this.occupancy = own | enemy;
+        this.king_square = BitBoardUtils.firstSquare(piece_bitboards[own_base + KING]);
+        this.checkers = getEnemyAttackers(this.king_square, this.occupancy);
+        this.pinned = calculatePinned(own, enemy);
+        this.evasion_mask = calculateEvasionMask();
+    }
+
+    //A piece is pinned when it is the only piece between the king and an enemy slider on the same line
+    private long calculatePinned(final long own, final long enemy)
+    {
+        final long queens = this.piece_bitboards[this.enemy_base + QUEEN];
+        final long snipers = (MagicBitBoards.getRookAttacks(this.king_square, enemy) & (this.piece_bitboards[this.enemy_base + ROOK] | queens)) |
+                             (MagicBitBoards.getBishopAttacks(this.king_square, enemy) & (this.piece_bitboards[this.enemy_base + BISHOP] | queens));
+        long pinned = BitBoardUtils.EMPTY;
+        for(long remaining = snipers; remaining != 0; remaining = BitBoardUtils.clearFirstSquare(remaining))
+        {
+            final long blockers = PrecomputedAttacks.getBetween(this.king_square, BitBoardUtils.firstSquare(remaining)) & this.occupancy;
+            if(blockers != 0 && BitBoardUtils.clearFirstSquare(blockers) == 0 && (blockers & own) != 0)
+                pinned |= blockers;
+        }
+        return pinned;
+    }
+
+    //Tiles a non-king move must land on: anywhere when not in check, capture or block a single checker, nowhere in double check
+    private long calculateEvasionMask()
+    {
+        if(this.checkers == 0)
+            return ~BitBoardUtils.EMPTY;
+        if(BitBoardUtils.clearFirstSquare(this.checkers) != 0)
+            return BitBoardUtils.EMPTY;
+        return this.checkers | PrecomputedAttacks.getBetween(this.king_square, BitBoardUtils.firstSquare(this.checkers));
+    }
+
+    private long getEnemyAttackers(final int tile_coordinate, final long occupancy)
+    {
+        final long queens = this.piece_bitboards[this.enemy_base + QUEEN];
+        return (PrecomputedAttacks.getPawnAttacks(this.alliance, tile_coordinate) & this.piece_bitboards[this.enemy_base + PAWN]) |
+               (PrecomputedAttacks.getKnightAttacks(tile_coordinate) & this.piece_bitboards[this.enemy_base + KNIGHT]) |
+               (PrecomputedAttacks.getKingAttacks(tile_coordinate) & this.piece_bitboards[this.enemy_base + KING]) |
+               (MagicBitBoards.getBishopAttacks(tile_coordinate, occupancy) & (this.piece_bitboards[this.enemy_base + BISHOP] | queens)) |
+               (MagicBitBoards.getRookAttacks(tile_coordinate, occupancy) & (this.piece_bitboards[this.enemy_base + ROOK] | queens));
+    }
+
+    public boolean isInCheck()
+    {
+        return this.checkers != 0;
+    }
+
+    public long getCheckers()
+    {
+        return this.checkers;
+    }
+
+    public long getPinned()
+    {
+        return this.pinned;
+    }
+
+    public boolean isLegal(final Move move)
+    {
+        return isLegal(move.toIntMove());
+    }
+
+    //move is a pseudo-legal MoveEncoding int of this generator's alliance
+    public boolean isLegal(final int move)
+    {
+        final int from = MoveEncoding.getCurrentCoordinate(move);
+        final int to = MoveEncoding.getDestinationCoordinate(move);
+        if(from == this.king_square)
+        {
+            //The king may not pass through an attacked tile either; the tile it passes is halfway to its destination
+            if(MoveEncoding.isCastle(move))
+                return this.checkers == 0 &&
+                       getEnemyAttackers((from + to) / 2, this.occupancy) == 0 &&
+                       getEnemyAttackers(to, this.occupancy) == 0;
+            //Sliders checking the king still see through the tile it steps away from
+            return getEnemyAttackers(to, this.occupancy ^ BitBoardUtils.squareMask(from)) == 0;
+        }
+        if(MoveEncoding.isEnPassant(move))
+            return isEnPassantLegal(from, to);
+        if(!BitBoardUtils.isSet(this.evasion_mask, to))
+            return false;
+        return !BitBoardUtils.isSet(this.pinned, from) || BitBoardUtils.isSet(PrecomputedAttacks.getLine(this.king_square, from), to);
+    }
+
+    //En passant empties two tiles on the capturing rank at once, which the pin mask cannot see, so replay it on the occupancy
+    private boolean isEnPassantLegal(final int from, final int to)
+    {
+        final int captured_square = to - this.alliance.getDirection() * BoardUtils.NUM_FILES;
+        final long captured = BitBoardUtils.squareMask(captured_square);
+        final long occupancy_after = this.occupancy ^ BitBoardUtils.squareMask(from) ^ BitBoardUtils.squareMask(to) ^ captured;
+        return (getEnemyAttackers(this.king_square, occupancy_after) & ~captured) == 0;
+    }
+
+    public ImmutableList<Move> filterLegalMoves(final Iterable<Move> pseudo_legal_moves)
+    {
+        final List<Move> legal_moves = new ArrayList<>();
+        for(final Move move : pseudo_legal_moves)
+        {
+            if(isLegal(move))
+                legal_moves.add(move);
+        }
+        return ImmutableList.copyOf(legal_moves);
+    }
+
+    //Compacts the moves from first_index onwards in place, keeping the order of the moves that survive
+    public void filterLegalMoves(final IntMoveList moves, final int first_index)
+    {
+        int size = first_index;
+        for(int i=first_index; i<moves.size(); i++)
+        {
+            final int move = moves.get(i);
+            if(isLegal(move))
+                moves.set(size++, move);
+        }
+        moves.truncate(size);
+    }
+}
@@ -2,8 +2,10 @@ package com.chess.engine.board;
 
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
 import com.chess.engine.pieces.Rook;
 
+import java.util.Collection;
 import java.util.Locale;
 
 public abstract class Move
@@ -50,7 +52,7 @@ public abstract class Move
                 this.getPiece().equals(other_move.getPiece());
     }
 
-    private int getCurrentCoordinate() {
+    public int getCurrentCoordinate() {
         return getPiece().getPiecePosition();
     }
 
@@ -62,6 +64,10 @@ public abstract class Move
         return piece;
     }
 
+    public Board getBoard() {
+        return board;
+    }
+
     public boolean isAttack() {
         return false;
     }
@@ -74,23 +80,42 @@ public abstract class Move
         return null;
     }
 
+    //Compact MoveEncoding form of this move, for the search code and move logs
+    public int toIntMove()
+    {
+        return MoveEncoding.encode(getCurrentCoordinate(), this.destination_coordinate, getEncodingFlags());
+    }
+
+    protected int getEncodingFlags()
+    {
+        return MoveEncoding.QUIET;
+    }
+
     public Board execute()
     {
-        final Board.Builder builder = new Board.Builder();
-        for(final Piece piece : this.board.getCurrentPlayer().getActivePieces())
-        {
-            if(!this.piece.equals(piece))
-                builder.setPiece(piece);
-        }
-        for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces())
-        {
-            builder.setPiece(piece);
-        }
-        builder.setPiece(this.piece.movePiece(this));
-        builder.setNextPlayer(this.board.getCurrentPlayer().getOpponent().getAlliance());
+        //Only the moving piece changes, so start from the parent's layout and patch its two tiles
+        final Board.Builder builder = new Board.Builder(this.board);
+        builder.removePiece(this.piece.getPiecePosition());
+        final Piece moved_piece = this.piece.movePiece(this);
+        builder.setPiece(moved_piece);
+        builder.setNextPlayer(this.board.getCurrentPlayerAlliance().opposite());
+        builder.setZobristKey(calculateTransitionKey(moved_piece, null));
         return builder.build();
     }
 
+    //Zobrist key of the resulting board, patched from the parent's key instead of rescanning every tile
+    protected long calculateTransitionKey(final Piece moved_piece, final Pawn en_passant_pawn)
+    {
+        final int castling_rights = this.board.getCastlingRights();
+        final int castling_rights_after = BoardUtils.getCastlingRightsAfterMove(castling_rights,
+                                                                                 getCurrentCoordinate(),
+                                                                                 this.destination_coordinate);
+        return this.board.getZobristKey() ^ Zobrist.BLACK_TO_MOVE_KEY ^
+               Zobrist.pieceKey(this.piece) ^ Zobrist.pieceKey(moved_piece) ^
+               Zobrist.castlingKey(castling_rights) ^ Zobrist.castlingKey(castling_rights_after) ^
+               Zobrist.enPassantKey(this.board.getEnPassantPawn()) ^ Zobrist.enPassantKey(en_passant_pawn);
+    }
+
     public static final class NormalMove extends Move
     {
         public NormalMove(final Board board, final Piece piece, final int destination_coordinate)
@@ -133,8 +158,17 @@ public abstract class Move
         }
 
         @Override
-        public Board execute() {
-            return null;
+        public Board execute()
+        {
+            //The attacked piece is not always on the destination tile (en passant), so clear it separately
+            final Board.Builder builder = new Board.Builder(this.board);
+            builder.removePiece(this.piece.getPiecePosition());
+            builder.removePiece(this.attacked_piece.getPiecePosition());
+            final Piece moved_piece = this.piece.movePiece(this);
+            builder.setPiece(moved_piece);
+            builder.setNextPlayer(this.board.getCurrentPlayerAlliance().opposite());
+            builder.setZobristKey(calculateTransitionKey(moved_piece, null) ^ Zobrist.pieceKey(this.attacked_piece));
+            return builder.build();
         }
 
         @Override
@@ -146,6 +180,11 @@ public abstract class Move
         public Piece getAttackedPiece() {
             return this.attacked_piece;
         }
+
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.CAPTURE;
+        }
     }
 
     public static final class PawnMove extends Move
@@ -170,6 +209,81 @@ public abstract class Move
         {
             super(board, piece, destination_coordinate, attacked_piece);
         }
+
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.EN_PASSANT;
+        }
+    }
+
+    /**
+     * A pawn push or pawn capture onto the last rank. The promoted piece replaces the pawn on the
+     * destination tile; one PawnPromotion is generated per possible promotion piece.
+     */
+    public static final class PawnPromotion extends Move
+    {
+        private final Piece attacked_piece;
+        private final PieceType promotion_type;
+
+        public PawnPromotion(final Board board, final Piece piece, final int destination_coordinate,
+                             final Piece attacked_piece, final PieceType promotion_type)
+        {
+            super(board, piece, destination_coordinate);
+            this.attacked_piece = attacked_piece;
+            this.promotion_type = promotion_type;
+        }
+
+        public PieceType getPromotionType() {
+            return this.promotion_type;
+        }
+
+        @Override
+        public boolean isAttack() {
+            return this.attacked_piece != null;
+        }
+
+        @Override
+        public Piece getAttackedPiece() {
+            return this.attacked_piece;
+        }
+
+        @Override
+        public int toIntMove() {
+            return MoveEncoding.encodePromotion(this.piece.getPiecePosition(), this.destination_coordinate,
+                                                this.promotion_type.ordinal(), isAttack());
+        }
+
+        @Override
+        public Board execute()
+        {
+            final Board.Builder builder = new Board.Builder(this.board);
+            builder.removePiece(this.piece.getPiecePosition());
+            final Piece promoted_piece = Piece.createPiece(this.promotion_type, this.piece.getPieceAlliance(),
+                                                           this.destination_coordinate, false);
+            builder.setPiece(promoted_piece);
+            builder.setNextPlayer(this.board.getCurrentPlayerAlliance().opposite());
+            final long captured_key = isAttack() ? Zobrist.pieceKey(this.attacked_piece) : 0L;
+            builder.setZobristKey(calculateTransitionKey(promoted_piece, null) ^ captured_key);
+            return builder.build();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + this.promotion_type.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if(this == other)   return true;
+            if(!(other instanceof PawnPromotion))   return false;
+            final PawnPromotion other_move = (PawnPromotion) other;
+            return this.promotion_type == other_move.promotion_type && super.equals(other_move);
+        }
+
+        @Override
+        public String toString() {
+            return BoardUtils.getPositionAtCoordinate(this.destination_coordinate) + "=" + this.promotion_type.toString();
+        }
     }
 
     public static final class PawnJumpMove extends Move
@@ -182,22 +296,21 @@ public abstract class Move
         @Override
         public Board execute()
         {
-            final Board.Builder builder = new Board.Builder();
-            for(final Piece piece : this.board.getCurrentPlayer().getActivePieces())
-            {
-                if(!this.piece.equals(piece))
-                    builder.setPiece(piece);
-            }
-            for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces())
-                builder.setPiece(piece);
-
+            final Board.Builder builder = new Board.Builder(this.board);
+            builder.removePiece(this.piece.getPiecePosition());
             final Pawn moved_pawn = (Pawn) this.piece.movePiece(this);
             builder.setPiece(moved_pawn);
             builder.setEnPassantPawn(moved_pawn);
-            builder.setNextPlayer(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            builder.setNextPlayer(this.board.getCurrentPlayerAlliance().opposite());
+            builder.setZobristKey(calculateTransitionKey(moved_pawn, moved_pawn));
             return builder.build();
         }
 
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.PAWN_JUMP;
+        }
+
         @Override
         public String toString() {
             return "foo";
@@ -231,18 +344,17 @@ public abstract class Move
         @Override
         public Board execute()
         {
-            final Board.Builder builder = new Board.Builder();
-            for (final Piece piece : this.board.getCurrentPlayer().getActivePieces())
-            {
-                if (!this.piece.equals(piece) && !this.castle_rook.equals(piece))
-                    builder.setPiece(piece);
-            }
-            for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces())
-                    builder.setPiece(piece);
-            builder.setPiece(this.piece.movePiece(this));
-            //TODO have to add isfirstmove parameter to rook, since a newly created rook has not moved yet
-            builder.setPiece(new Rook(castle_rook_destination, this.board.getCurrentPlayer().getAlliance()));
-            builder.setNextPlayer(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            final Board.Builder builder = new Board.Builder(this.board);
+            builder.removePiece(this.piece.getPiecePosition());
+            builder.removePiece(this.castle_rook.getPiecePosition());
+            final Piece moved_king = this.piece.movePiece(this);
+            final Piece moved_rook = Piece.createPiece(PieceType.ROOK, this.piece.getPieceAlliance(),
+                                                       this.castle_rook_destination, false);
+            builder.setPiece(moved_king);
+            builder.setPiece(moved_rook);
+            builder.setNextPlayer(this.board.getCurrentPlayerAlliance().opposite());
+            builder.setZobristKey(calculateTransitionKey(moved_king, null) ^
+                                  Zobrist.pieceKey(this.castle_rook) ^ Zobrist.pieceKey(moved_rook));
             return builder.build();
         }
     }
@@ -263,6 +375,11 @@ public abstract class Move
         public String toString() {
             return "0-0";
         }
+
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.KING_SIDE_CASTLE;
+        }
     }
 
     public static final class QueenSideCastleMove extends CastleMove
@@ -277,6 +394,11 @@ public abstract class Move
         public String toString() {
             return "0-0-0";
         }
+
+        @Override
+        protected int getEncodingFlags() {
+            return MoveEncoding.QUEEN_SIDE_CASTLE;
+        }
     }
 
     public static final class NullMove extends Move
@@ -291,6 +413,11 @@ public abstract class Move
         {
             throw new RuntimeException("Cannot execute a NullMove object");
         }
+
+        @Override
+        public int toIntMove() {
+            return MoveEncoding.NULL_MOVE;
+        }
     }
 
     public static class MoveFactory
@@ -299,12 +426,27 @@ public abstract class Move
         {
             throw new RuntimeException("Cannot instantiate and object of this class.");
         }
+        //Constant time after the board's first lookup; a promotion resolves to the queen promotion
         public static Move createMove(final Board board, final int current_coordinate, final int destination_coordinate)
         {
-            for(final Move move : board.getAllLegalMoves())
+            final Move move = board.getMoveIndex().getMove(current_coordinate, destination_coordinate);
+            return move != null ? move : NULL_MOVE;
+        }
+
+        //All legal moves between the two tiles, so callers can choose among the promotion pieces
+        public static Collection<Move> createCandidateMoves(final Board board, final int current_coordinate,
+                                                            final int destination_coordinate)
+        {
+            return board.getMoveIndex().getMoves(current_coordinate, destination_coordinate);
+        }
+
+        //Converts a MoveEncoding int back into the matching legal Move of the side to move
+        public static Move createMove(final Board board, final int encoded_move)
+        {
+            for(final Move move : createCandidateMoves(board, MoveEncoding.getCurrentCoordinate(encoded_move),
+                                                       MoveEncoding.getDestinationCoordinate(encoded_move)))
             {
-                if(move.getCurrentCoordinate() == current_coordinate &&
-                        move.getDestinationCoordinate() == destination_coordinate)
+                if(move.toIntMove() == encoded_move && move.getPiece().getPieceAlliance() == board.getCurrentPlayerAlliance())
                     return move;
             }
             return NULL_MOVE;
@@ -0,0 +1,101 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Moves packed into the low 16 bits of an int, for search code that cannot afford a Move
+ * object (and the Board it references) per generated move:
+ *
+ *   bits  0-5   current tile coordinate
+ *   bits  6-11  destination tile coordinate
+ *   bits 12-15  flags: bit 14 = capture, bit 15 = promotion, and for promotions the low two
+ *               flag bits select the promoted piece (knight, bishop, rook, queen)
+ */
+public final class MoveEncoding
+{
+    public static final int NULL_MOVE = 0;
+
+    public static final int QUIET = 0;
+    public static final int PAWN_JUMP = 1;
+    public static final int KING_SIDE_CASTLE = 2;
+    public static final int QUEEN_SIDE_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = PROMOTION | CAPTURE;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int DESTINATION_SHIFT = 6;
+    private static final int FLAGS_SHIFT = 12;
+    private static final int FIRST_PROMOTION_TYPE = PieceType.KNIGHT.ordinal();
+
+    private MoveEncoding()
+    {
+        throw new RuntimeException("MoveEncoding class cannot be instantiated.");
+    }
+
+    public static int encode(final int current_coordinate, final int destination_coordinate, final int flags)
+    {
+        return current_coordinate | (destination_coordinate << DESTINATION_SHIFT) | (flags << FLAGS_SHIFT);
+    }
+
+    //promotion_type is a PieceType ordinal from KNIGHT to QUEEN
+    public static int encodePromotion(final int current_coordinate, final int destination_coordinate,
+                                      final int promotion_type, final boolean is_capture)
+    {
+        final int flags = (is_capture ? PROMOTION_CAPTURE : PROMOTION) | (promotion_type - FIRST_PROMOTION_TYPE);
+        return encode(current_coordinate, destination_coordinate, flags);
+    }
+
+    public static int getCurrentCoordinate(final int move)
+    {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getDestinationCoordinate(final int move)
+    {
+        return (move >>> DESTINATION_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int getFlags(final int move)
+    {
+        return move >>> FLAGS_SHIFT;
+    }
+
+    public static boolean isCapture(final int move)
+    {
+        return (getFlags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(final int move)
+    {
+        return (getFlags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(final int move)
+    {
+        final int flags = getFlags(move);
+        return flags == KING_SIDE_CASTLE || flags == QUEEN_SIDE_CASTLE;
+    }
+
+    public static boolean isEnPassant(final int move)
+    {
+        return getFlags(move) == EN_PASSANT;
+    }
+
+    //PieceType ordinal of the promoted piece; only meaningful when isPromotion(move)
+    public static int getPromotionType(final int move)
+    {
+        return FIRST_PROMOTION_TYPE + (getFlags(move) & 3);
+    }
+
+    //Long algebraic form, e.g. e2e4 or e7e8q
+    public static String toString(final int move)
+    {
+        if(move == NULL_MOVE)
+            return "0000";
+        final String text = BoardUtils.getPositionAtCoordinate(getCurrentCoordinate(move)) +
+                            BoardUtils.getPositionAtCoordinate(getDestinationCoordinate(move));
+        return isPromotion(move) ? text + PieceType.values()[getPromotionType(move)].toString().toLowerCase() : text;
+    }
+}
@@ -0,0 +1,78 @@
+package com.chess.engine.board;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+
+/**
+ * Legal moves of a board keyed by (current, destination) tile in a small open-addressed table,
+ * so a move picked on the GUI or read from notation is found without scanning every move.
+ * Promotions share a key, so a key can hold several moves; they sit next to each other on
+ * the same probe chain, in the order they were generated.
+ */
+final class MoveIndex
+{
+    private static final int EMPTY_KEY = -1;
+
+    private final int[] keys;
+    private final Move[] moves;
+    private final int index_mask;
+
+    MoveIndex(final Iterable<Move> legal_moves)
+    {
+        int move_count = 0;
+        for(final Move ignored : legal_moves)
+            move_count++;
+        //At most half full, so probe chains stay short
+        final int capacity = Integer.highestOneBit(Math.max(move_count, 1) * 2) * 2;
+        this.keys = new int[capacity];
+        this.moves = new Move[capacity];
+        this.index_mask = capacity - 1;
+        Arrays.fill(this.keys, EMPTY_KEY);
+
+        for(final Move move : legal_moves)
+        {
+            final int key = calculateKey(move.getCurrentCoordinate(), move.getDestinationCoordinate());
+            int slot = calculateSlot(key);
+            while(this.keys[slot] != EMPTY_KEY)
+                slot = (slot + 1) & this.index_mask;
+            this.keys[slot] = key;
+            this.moves[slot] = move;
+        }
+    }
+
+    private static int calculateKey(final int current_coordinate, final int destination_coordinate)
+    {
+        return current_coordinate | (destination_coordinate << 6);
+    }
+
+    private int calculateSlot(final int key)
+    {
+        return (key * 0x9E3779B1 >>> 16) & this.index_mask;
+    }
+
+    //First move generated for the tile pair (the queen promotion, for promotions), or null
+    Move getMove(final int current_coordinate, final int destination_coordinate)
+    {
+        final int key = calculateKey(current_coordinate, destination_coordinate);
+        for(int slot = calculateSlot(key); this.keys[slot] != EMPTY_KEY; slot = (slot + 1) & this.index_mask)
+        {
+            if(this.keys[slot] == key)
+                return this.moves[slot];
+        }
+        return null;
+    }
+
+    //Every move for the tile pair; more than one only for promotions
+    ImmutableList<Move> getMoves(final int current_coordinate, final int destination_coordinate)
+    {
+        final int key = calculateKey(current_coordinate, destination_coordinate);
+        final ImmutableList.Builder<Move> candidates = ImmutableList.builder();
+        for(int slot = calculateSlot(key); this.keys[slot] != EMPTY_KEY; slot = (slot + 1) & this.index_mask)
+        {
+            if(this.keys[slot] == key)
+                candidates.add(this.moves[slot]);
+        }
+        return candidates.build();
+    }
+}
@@ -0,0 +1,575 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * A position that is changed in place by makeMove/unmakeMove, for searches and perft that
+ * would otherwise build a new Board for every node. Everything needed to take a move back
+ * is pushed onto an undo stack of primitive arrays, so a make/unmake pair allocates nothing.
+ * The Zobrist keys are kept up to date piece by piece, and a PieceListener is told of each change.
+ *
+ * Conversion to and from the immutable Board happens only at the API boundary.
+ */
+public final class MutableBoard
+{
+    public static final int NO_PIECE = -1;
+    public static final int NO_SQUARE = -1;
+
+    static final int PAWN = PieceType.PAWN.ordinal();
+    static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    static final int BISHOP = PieceType.BISHOP.ordinal();
+    static final int ROOK = PieceType.ROOK.ordinal();
+    static final int QUEEN = PieceType.QUEEN.ordinal();
+    static final int KING = PieceType.KING.ordinal();
+
+    private static final Alliance[] ALLIANCES = Alliance.values();
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final int WHITE = Alliance.WHITE.ordinal();
+    private static final int BLACK = Alliance.BLACK.ordinal();
+
+    private static final int INITIAL_UNDO_CAPACITY = 256;
+
+    private final long[] piece_bitboards;
+    private final long[] occupancy;
+    private final int[] board_pieces;
+    private int side_to_move;
+    private int castling_rights;
+    private int en_passant_square;
+    private int halfmove_clock;
+    private long zobrist_key;
+    private long pawn_key;
+    private PieceListener piece_listener;
+
+    private int undo_size;
+    private int[] undo_moves;
+    private int[] undo_captured;
+    private int[] undo_castling_rights;
+    private int[] undo_en_passant_square;
+    private int[] undo_halfmove_clock;
+    private long[] undo_zobrist_key;
+
+    public MutableBoard(final Board board)
+    {
+        this.piece_bitboards = new long[BitBoardUtils.NUM_PIECE_BITBOARDS];
+        this.occupancy = new long[ALLIANCES.length];
+        this.board_pieces = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(this.board_pieces, NO_PIECE);
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final Piece piece = board.getPiece(i);
+            if(piece != null)
+                putPiece(BitBoardUtils.pieceIndex(piece.getPieceAlliance(), piece.getPieceType()), i);
+        }
+        this.side_to_move = board.getCurrentPlayerAlliance().ordinal();
+        this.castling_rights = board.getCastlingRights();
+        final Pawn en_passant_pawn = board.getEnPassantPawn();
+        this.en_passant_square = en_passant_pawn == null ? NO_SQUARE :
+                en_passant_pawn.getPiecePosition() - en_passant_pawn.getPieceAlliance().getDirection() * BoardUtils.NUM_FILES;
+        this.halfmove_clock = 0;
+        this.zobrist_key ^= Zobrist.sideToMoveKey(getSideToMove()) ^
+                            Zobrist.castlingKey(this.castling_rights) ^
+                            Zobrist.enPassantKey(this.en_passant_square);
+        allocateUndoStack(INITIAL_UNDO_CAPACITY);
+    }
+
+    //Only one listener at a time; null removes it. It is not told about the pieces already on the board
+    public void setPieceListener(final PieceListener piece_listener)
+    {
+        this.piece_listener = piece_listener;
+    }
+
+    public Board toBoard()
+    {
+        final Board.Builder builder = new Board.Builder();
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            if(this.board_pieces[i] != NO_PIECE)
+                builder.setPiece(createPiece(this.board_pieces[i], i));
+        }
+        if(this.en_passant_square != NO_SQUARE)
+        {
+            final int en_passant_pawn_square = this.en_passant_square - ALLIANCES[this.side_to_move].getDirection() * BoardUtils.NUM_FILES;
+            builder.setEnPassantPawn((Pawn) createPiece(this.board_pieces[en_passant_pawn_square], en_passant_pawn_square));
+        }
+        builder.setNextPlayer(ALLIANCES[this.side_to_move]);
+        return builder.build();
+    }
+
+    public void makeMove(final Move move)
+    {
+        makeMove(move.toIntMove());
+    }
+
+    //Plays a MoveEncoding move without checking that it is legal
+    public void makeMove(final int move)
+    {
+        if(this.undo_size == this.undo_moves.length)
+            allocateUndoStack(this.undo_size * 2);
+
+        final int from = MoveEncoding.getCurrentCoordinate(move);
+        final int to = MoveEncoding.getDestinationCoordinate(move);
+        final int flags = MoveEncoding.getFlags(move);
+        final int moving_piece = this.board_pieces[from];
+        final int moving_type = moving_piece % BitBoardUtils.NUM_PIECE_TYPES;
+        final int captured_square = flags == MoveEncoding.EN_PASSANT ?
+                to - ALLIANCES[this.side_to_move].getDirection() * BoardUtils.NUM_FILES : to;
+        final int captured_piece = this.board_pieces[captured_square];
+
+        this.undo_moves[this.undo_size] = move;
+        this.undo_captured[this.undo_size] = captured_piece;
+        this.undo_castling_rights[this.undo_size] = this.castling_rights;
+        this.undo_en_passant_square[this.undo_size] = this.en_passant_square;
+        this.undo_halfmove_clock[this.undo_size] = this.halfmove_clock;
+        this.undo_zobrist_key[this.undo_size] = this.zobrist_key;
+        this.undo_size++;
+
+        if(captured_piece != NO_PIECE)
+            removePiece(captured_piece, captured_square);
+        removePiece(moving_piece, from);
+        putPiece(MoveEncoding.isPromotion(move) ? moving_piece - moving_type + MoveEncoding.getPromotionType(move) : moving_piece, to);
+
+        if(flags == MoveEncoding.KING_SIDE_CASTLE || flags == MoveEncoding.QUEEN_SIDE_CASTLE)
+            moveCastleRook(from, to, false);
+
+        this.zobrist_key ^= Zobrist.castlingKey(this.castling_rights) ^ Zobrist.enPassantKey(this.en_passant_square);
+        this.castling_rights = BoardUtils.getCastlingRightsAfterMove(this.castling_rights, from, to);
+        this.en_passant_square = flags == MoveEncoding.PAWN_JUMP ? (from + to) / 2 : NO_SQUARE;
+        this.halfmove_clock = moving_type == PAWN || captured_piece != NO_PIECE ? 0 : this.halfmove_clock + 1;
+        this.side_to_move ^= 1;
+        this.zobrist_key ^= Zobrist.castlingKey(this.castling_rights) ^ Zobrist.enPassantKey(this.en_passant_square) ^
+                            Zobrist.BLACK_TO_MOVE_KEY;
+    }
+
+    public void unmakeMove()
+    {
+        if(this.undo_size == 0)
+            throw new RuntimeException("No move to unmake");
+
+        this.undo_size--;
+        final int move = this.undo_moves[this.undo_size];
+        final int from = MoveEncoding.getCurrentCoordinate(move);
+        final int to = MoveEncoding.getDestinationCoordinate(move);
+        final int flags = MoveEncoding.getFlags(move);
+        final int captured_piece = this.undo_captured[this.undo_size];
+        this.side_to_move ^= 1;
+        this.castling_rights = this.undo_castling_rights[this.undo_size];
+        this.en_passant_square = this.undo_en_passant_square[this.undo_size];
+        this.halfmove_clock = this.undo_halfmove_clock[this.undo_size];
+
+        final int piece_on_destination = this.board_pieces[to];
+        final int moved_piece = MoveEncoding.isPromotion(move) ?
+                BitBoardUtils.pieceIndex(ALLIANCES[this.side_to_move], PieceType.PAWN) : piece_on_destination;
+        removePiece(piece_on_destination, to);
+        putPiece(moved_piece, from);
+
+        if(flags == MoveEncoding.KING_SIDE_CASTLE || flags == MoveEncoding.QUEEN_SIDE_CASTLE)
+            moveCastleRook(from, to, true);
+
+        if(captured_piece != NO_PIECE)
+        {
+            final int captured_square = flags == MoveEncoding.EN_PASSANT ?
+                    to - ALLIANCES[this.side_to_move].getDirection() * BoardUtils.NUM_FILES : to;
+            putPiece(captured_piece, captured_square);
+        }
+        this.zobrist_key = this.undo_zobrist_key[this.undo_size];
+    }
+
+    //The current position already occurred since this board was created, looking back no further than the last irreversible move
+    public boolean isRepetition()
+    {
+        final int oldest = Math.max(this.undo_size - this.halfmove_clock, 0);
+        for(int i = this.undo_size - 2; i >= oldest; i -= 2)
+        {
+            if(this.undo_zobrist_key[i] == this.zobrist_key)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Appends every pseudo-legal move of the side to move. Moves may still leave the mover's
+     * king in check; castling is only generated when the king does not pass an attacked tile.
+     */
+    public void generateMoves(final IntMoveList moves)
+    {
+        generateCaptures(moves);
+        generateQuietMoves(moves);
+    }
+
+    //Appends only the legal moves of the side to move, filtered by pins and checks instead of make/unmake
+    public void generateLegalMoves(final IntMoveList moves)
+    {
+        final int first = moves.size();
+        generateMoves(moves);
+        createLegalMoveGenerator().filterLegalMoves(moves, first);
+    }
+
+    //Pseudo-legal captures, en passant and every promotion (including non-capturing ones)
+    public void generateCaptures(final IntMoveList moves)
+    {
+        final int us = this.side_to_move;
+        final int base = us * BitBoardUtils.NUM_PIECE_TYPES;
+        final long enemy = this.occupancy[us ^ 1];
+        final long all = getAllOccupancy();
+
+        generatePawnCaptures(moves, us, enemy);
+        for(int piece_type = KNIGHT; piece_type <= KING; piece_type++)
+        {
+            for(long pieces = this.piece_bitboards[base + piece_type]; pieces != 0; pieces = BitBoardUtils.clearFirstSquare(pieces))
+            {
+                final int from = BitBoardUtils.firstSquare(pieces);
+                addMoves(moves, from, getPieceAttacks(piece_type, from, all) & enemy, MoveEncoding.CAPTURE);
+            }
+        }
+    }
+
+    //Pseudo-legal moves that neither capture nor promote, castling included
+    public void generateQuietMoves(final IntMoveList moves)
+    {
+        final int us = this.side_to_move;
+        final int base = us * BitBoardUtils.NUM_PIECE_TYPES;
+        final long all = getAllOccupancy();
+
+        generatePawnQuietMoves(moves, us);
+        for(int piece_type = KNIGHT; piece_type <= KING; piece_type++)
+        {
+            for(long pieces = this.piece_bitboards[base + piece_type]; pieces != 0; pieces = BitBoardUtils.clearFirstSquare(pieces))
+            {
+                final int from = BitBoardUtils.firstSquare(pieces);
+                addMoves(moves, from, getPieceAttacks(piece_type, from, all) & ~all, MoveEncoding.QUIET);
+            }
+        }
+        generateCastleMoves(moves, us);
+    }
+
+    private void generatePawnCaptures(final IntMoveList moves, final int us, final long enemy)
+    {
+        final Alliance alliance = ALLIANCES[us];
+        final long empty = ~getAllOccupancy();
+        final long promotion_rank = getPromotionRank(alliance);
+        final long en_passant = this.en_passant_square == NO_SQUARE ? BitBoardUtils.EMPTY : BitBoardUtils.squareMask(this.en_passant_square);
+        for(long pawns = this.piece_bitboards[us * BitBoardUtils.NUM_PIECE_TYPES + PAWN]; pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns))
+        {
+            final int from = BitBoardUtils.firstSquare(pawns);
+            final long promotion_push = PrecomputedAttacks.getPawnPushes(alliance, from) & empty & promotion_rank;
+            if(promotion_push != 0)
+                addPromotions(moves, from, BitBoardUtils.firstSquare(promotion_push), false);
+
+            final long attacks = PrecomputedAttacks.getPawnAttacks(alliance, from);
+            for(long captures = attacks & enemy; captures != 0; captures = BitBoardUtils.clearFirstSquare(captures))
+            {
+                final int to = BitBoardUtils.firstSquare(captures);
+                if(BitBoardUtils.isSet(promotion_rank, to))
+                    addPromotions(moves, from, to, true);
+                else
+                    moves.add(MoveEncoding.encode(from, to, MoveEncoding.CAPTURE));
+            }
+            if((attacks & en_passant) != 0)
+                moves.add(MoveEncoding.encode(from, this.en_passant_square, MoveEncoding.EN_PASSANT));
+        }
+    }
+
+    private void generatePawnQuietMoves(final IntMoveList moves, final int us)
+    {
+        final Alliance alliance = ALLIANCES[us];
+        final long empty = ~getAllOccupancy();
+        final long promotion_rank = getPromotionRank(alliance);
+        for(long pawns = this.piece_bitboards[us * BitBoardUtils.NUM_PIECE_TYPES + PAWN]; pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns))
+        {
+            final int from = BitBoardUtils.firstSquare(pawns);
+            final long push = PrecomputedAttacks.getPawnPushes(alliance, from) & empty;
+            if(push == 0 || (push & promotion_rank) != 0)
+                continue;
+            moves.add(MoveEncoding.encode(from, BitBoardUtils.firstSquare(push), MoveEncoding.QUIET));
+
+            final long jump = PrecomputedAttacks.getPawnJumps(alliance, from) & empty;
+            if(jump != 0)
+                moves.add(MoveEncoding.encode(from, BitBoardUtils.firstSquare(jump), MoveEncoding.PAWN_JUMP));
+        }
+    }
+
+    private static long getPromotionRank(final Alliance alliance)
+    {
+        return alliance.isWhite() ? BitBoardUtils.EIGHTH_RANK_MASK : BitBoardUtils.FIRST_RANK_MASK;
+    }
+
+    private static void addPromotions(final IntMoveList moves, final int from, final int to, final boolean is_capture)
+    {
+        for(int promotion_type = QUEEN; promotion_type >= KNIGHT; promotion_type--)
+            moves.add(MoveEncoding.encodePromotion(from, to, promotion_type, is_capture));
+    }
+
+    private static void addMoves(final IntMoveList moves, final int from, final long destinations, final int flags)
+    {
+        for(long remaining = destinations; remaining != 0; remaining = BitBoardUtils.clearFirstSquare(remaining))
+            moves.add(MoveEncoding.encode(from, BitBoardUtils.firstSquare(remaining), flags));
+    }
+
+    //Pins and checks of the side to move, read straight off this board's bitboards (no copy)
+    LegalMoveGenerator createLegalMoveGenerator()
+    {
+        return new LegalMoveGenerator(this.piece_bitboards, ALLIANCES[this.side_to_move]);
+    }
+
+    /**
+     * Whether the move could have come out of generateMoves in this position. Used to vet moves
+     * remembered from other positions (hash moves, killers) before they are searched.
+     */
+    public boolean isPseudoLegal(final int move)
+    {
+        if(move == MoveEncoding.NULL_MOVE)
+            return false;
+        final int us = this.side_to_move;
+        final int from = MoveEncoding.getCurrentCoordinate(move);
+        final int to = MoveEncoding.getDestinationCoordinate(move);
+        final int piece_index = this.board_pieces[from];
+        if(piece_index == NO_PIECE || piece_index / BitBoardUtils.NUM_PIECE_TYPES != us)
+            return false;
+
+        final int flags = MoveEncoding.getFlags(move);
+        final long all = getAllOccupancy();
+        final int target = this.board_pieces[to];
+        final boolean is_enemy_target = target != NO_PIECE && target / BitBoardUtils.NUM_PIECE_TYPES != us;
+        if(target != NO_PIECE && !is_enemy_target)
+            return false;
+
+        final int piece_type = piece_index % BitBoardUtils.NUM_PIECE_TYPES;
+        if(MoveEncoding.isCastle(move))
+            return piece_type == KING && from == (us == WHITE ? 60 : 4) &&
+                   to == from + (flags == MoveEncoding.KING_SIDE_CASTLE ? 2 : -2) &&
+                   canCastle(us, flags == MoveEncoding.KING_SIDE_CASTLE);
+        if(piece_type != PAWN)
+            return (flags == MoveEncoding.QUIET || flags == MoveEncoding.CAPTURE) &&
+                   MoveEncoding.isCapture(move) == is_enemy_target &&
+                   BitBoardUtils.isSet(getPieceAttacks(piece_type, from, all), to);
+
+        final Alliance alliance = ALLIANCES[us];
+        final boolean is_promotion = BitBoardUtils.isSet(getPromotionRank(alliance), to);
+        if(MoveEncoding.isPromotion(move) != is_promotion)
+            return false;
+        final boolean is_capture_flag = is_promotion ? MoveEncoding.isCapture(move) : flags == MoveEncoding.CAPTURE;
+        if(flags == MoveEncoding.EN_PASSANT)
+            return to == this.en_passant_square && BitBoardUtils.isSet(PrecomputedAttacks.getPawnAttacks(alliance, from), to);
+        if(is_capture_flag)
+            return is_enemy_target && BitBoardUtils.isSet(PrecomputedAttacks.getPawnAttacks(alliance, from), to);
+        if(target != NO_PIECE)
+            return false;
+        if(flags == MoveEncoding.PAWN_JUMP)
+            return BitBoardUtils.isSet(PrecomputedAttacks.getPawnJumps(alliance, from), to) &&
+                   (PrecomputedAttacks.getPawnPushes(alliance, from) & all) == 0;
+        return (is_promotion || flags == MoveEncoding.QUIET) &&
+               BitBoardUtils.isSet(PrecomputedAttacks.getPawnPushes(alliance, from), to);
+    }
+
+    private void generateCastleMoves(final IntMoveList moves, final int us)
+    {
+        final int king_square = us == WHITE ? 60 : 4;
+        if(canCastle(us, true))
+            moves.add(MoveEncoding.encode(king_square, king_square + 2, MoveEncoding.KING_SIDE_CASTLE));
+        if(canCastle(us, false))
+            moves.add(MoveEncoding.encode(king_square, king_square - 2, MoveEncoding.QUEEN_SIDE_CASTLE));
+    }
+
+    //Right still held, tiles between king and rook empty, and the king neither in nor passing through check
+    private boolean canCastle(final int us, final boolean king_side)
+    {
+        final boolean white = us == WHITE;
+        final int king_square = white ? 60 : 4;
+        final int right = king_side ? (white ? BoardUtils.WHITE_KING_SIDE_CASTLE : BoardUtils.BLACK_KING_SIDE_CASTLE)
+                                    : (white ? BoardUtils.WHITE_QUEEN_SIDE_CASTLE : BoardUtils.BLACK_QUEEN_SIDE_CASTLE);
+        if((this.castling_rights & right) == 0)
+            return false;
+
+        final long path = king_side ? BitBoardUtils.squareMask(king_square + 1) | BitBoardUtils.squareMask(king_square + 2)
+                                    : BitBoardUtils.squareMask(king_square - 1) | BitBoardUtils.squareMask(king_square - 2) |
+                                      BitBoardUtils.squareMask(king_square - 3);
+        if((getAllOccupancy() & path) != 0)
+            return false;
+
+        final Alliance opponent = ALLIANCES[us ^ 1];
+        final int step = king_side ? 1 : -1;
+        return !isSquareAttacked(king_square, opponent) &&
+               !isSquareAttacked(king_square + step, opponent) &&
+               !isSquareAttacked(king_square + 2 * step, opponent);
+    }
+
+    //Attack set of a knight, bishop, rook, queen or king standing on the tile
+    static long getPieceAttacks(final int piece_type, final int tile_coordinate, final long occupancy)
+    {
+        if(piece_type == KNIGHT)    return PrecomputedAttacks.getKnightAttacks(tile_coordinate);
+        if(piece_type == BISHOP)    return MagicBitBoards.getBishopAttacks(tile_coordinate, occupancy);
+        if(piece_type == ROOK)      return MagicBitBoards.getRookAttacks(tile_coordinate, occupancy);
+        if(piece_type == QUEEN)     return MagicBitBoards.getQueenAttacks(tile_coordinate, occupancy);
+        return PrecomputedAttacks.getKingAttacks(tile_coordinate);
+    }
+
+    public boolean isSquareAttacked(final int tile_coordinate, final Alliance attacker)
+    {
+        return getAttackers(tile_coordinate, attacker.ordinal(), getAllOccupancy()) != BitBoardUtils.EMPTY;
+    }
+
+    //Pieces of the given alliance that attack the tile, with sliders seeing through nothing but the given occupancy
+    public long getAttackers(final int tile_coordinate, final int alliance_index, final long occupancy)
+    {
+        final int base = alliance_index * BitBoardUtils.NUM_PIECE_TYPES;
+        final long queens = this.piece_bitboards[base + QUEEN];
+        return (PrecomputedAttacks.getPawnAttacks(ALLIANCES[alliance_index ^ 1], tile_coordinate) & this.piece_bitboards[base + PAWN]) |
+               (PrecomputedAttacks.getKnightAttacks(tile_coordinate) & this.piece_bitboards[base + KNIGHT]) |
+               (PrecomputedAttacks.getKingAttacks(tile_coordinate) & this.piece_bitboards[base + KING]) |
+               (MagicBitBoards.getBishopAttacks(tile_coordinate, occupancy) & (this.piece_bitboards[base + BISHOP] | queens)) |
+               (MagicBitBoards.getRookAttacks(tile_coordinate, occupancy) & (this.piece_bitboards[base + ROOK] | queens));
+    }
+
+    public boolean isKingAttacked(final Alliance alliance)
+    {
+        return isSquareAttacked(getKingSquare(alliance.ordinal()), ALLIANCES[alliance.ordinal() ^ 1]);
+    }
+
+    public boolean isInCheck()
+    {
+        return isKingAttacked(ALLIANCES[this.side_to_move]);
+    }
+
+    public int getKingSquare(final int alliance_index)
+    {
+        return BitBoardUtils.firstSquare(this.piece_bitboards[alliance_index * BitBoardUtils.NUM_PIECE_TYPES + KING]);
+    }
+
+    public long getPieceBitBoard(final Alliance alliance, final PieceType piece_type)
+    {
+        return this.piece_bitboards[BitBoardUtils.pieceIndex(alliance, piece_type)];
+    }
+
+    long[] getPieceBitBoards()
+    {
+        return this.piece_bitboards;
+    }
+
+    public long getOccupancy(final Alliance alliance)
+    {
+        return this.occupancy[alliance.ordinal()];
+    }
+
+    public long getAllOccupancy()
+    {
+        return this.occupancy[WHITE] | this.occupancy[BLACK];
+    }
+
+    //Piece index (alliance * 6 + PieceType ordinal) on the tile, or NO_PIECE
+    public int getPieceIndex(final int tile_coordinate)
+    {
+        return this.board_pieces[tile_coordinate];
+    }
+
+    public Alliance getSideToMove()
+    {
+        return ALLIANCES[this.side_to_move];
+    }
+
+    public int getCastlingRights()
+    {
+        return this.castling_rights;
+    }
+
+    public int getEnPassantSquare()
+    {
+        return this.en_passant_square;
+    }
+
+    public int getHalfmoveClock()
+    {
+        return this.halfmove_clock;
+    }
+
+    public long getZobristKey()
+    {
+        return this.zobrist_key;
+    }
+
+    //Zobrist key of the pawns alone, unchanged by any move that neither moves nor captures a pawn
+    public long getPawnKey()
+    {
+        return this.pawn_key;
+    }
+
+    public int getPly()
+    {
+        return this.undo_size;
+    }
+
+    private void moveCastleRook(final int king_from, final int king_to, final boolean undo)
+    {
+        final boolean king_side = king_to > king_from;
+        final int rook_from = king_side ? king_from + 3 : king_from - 4;
+        final int rook_to = king_side ? king_from + 1 : king_from - 1;
+        final int rook = BitBoardUtils.pieceIndex(ALLIANCES[this.board_pieces[undo ? rook_to : rook_from] / BitBoardUtils.NUM_PIECE_TYPES],
+                                                  PieceType.ROOK);
+        removePiece(rook, undo ? rook_to : rook_from);
+        putPiece(rook, undo ? rook_from : rook_to);
+    }
+
+    private void putPiece(final int piece_index, final int tile_coordinate)
+    {
+        final long square = BitBoardUtils.squareMask(tile_coordinate);
+        this.board_pieces[tile_coordinate] = piece_index;
+        this.piece_bitboards[piece_index] |= square;
+        this.occupancy[piece_index / BitBoardUtils.NUM_PIECE_TYPES] |= square;
+        this.zobrist_key ^= Zobrist.pieceKey(piece_index, tile_coordinate);
+        if(piece_index % BitBoardUtils.NUM_PIECE_TYPES == PAWN)
+            this.pawn_key ^= Zobrist.pieceKey(piece_index, tile_coordinate);
+        if(this.piece_listener != null)
+            this.piece_listener.onPiecePlaced(piece_index, tile_coordinate);
+    }
+
+    private void removePiece(final int piece_index, final int tile_coordinate)
+    {
+        final long square = BitBoardUtils.squareMask(tile_coordinate);
+        this.board_pieces[tile_coordinate] = NO_PIECE;
+        this.piece_bitboards[piece_index] &= ~square;
+        this.occupancy[piece_index / BitBoardUtils.NUM_PIECE_TYPES] &= ~square;
+        this.zobrist_key ^= Zobrist.pieceKey(piece_index, tile_coordinate);
+        if(piece_index % BitBoardUtils.NUM_PIECE_TYPES == PAWN)
+            this.pawn_key ^= Zobrist.pieceKey(piece_index, tile_coordinate);
+        if(this.piece_listener != null)
+            this.piece_listener.onPieceRemoved(piece_index, tile_coordinate);
+    }
+
+    private void allocateUndoStack(final int capacity)
+    {
+        this.undo_moves = this.undo_moves == null ? new int[capacity] : Arrays.copyOf(this.undo_moves, capacity);
+        this.undo_captured = this.undo_captured == null ? new int[capacity] : Arrays.copyOf(this.undo_captured, capacity);
+        this.undo_castling_rights = this.undo_castling_rights == null ? new int[capacity] : Arrays.copyOf(this.undo_castling_rights, capacity);
+        this.undo_en_passant_square = this.undo_en_passant_square == null ? new int[capacity] : Arrays.copyOf(this.undo_en_passant_square, capacity);
+        this.undo_halfmove_clock = this.undo_halfmove_clock == null ? new int[capacity] : Arrays.copyOf(this.undo_halfmove_clock, capacity);
+        this.undo_zobrist_key = this.undo_zobrist_key == null ? new long[capacity] : Arrays.copyOf(this.undo_zobrist_key, capacity);
+    }
+
+    private Piece createPiece(final int piece_index, final int tile_coordinate)
+    {
+        final Alliance alliance = ALLIANCES[piece_index / BitBoardUtils.NUM_PIECE_TYPES];
+        final PieceType piece_type = PIECE_TYPES[piece_index % BitBoardUtils.NUM_PIECE_TYPES];
+        final boolean is_first_move;
+        if(piece_type == PieceType.PAWN)
+            is_first_move = BitBoardUtils.isSet(alliance.isWhite() ? BitBoardUtils.SECOND_RANK_MASK : BitBoardUtils.SEVENTH_RANK_MASK,
+                                                tile_coordinate);
+        else if(piece_type == PieceType.ROOK)
+            is_first_move = hasCastlingRightFor(tile_coordinate);
+        else if(piece_type == PieceType.KING)
+            is_first_move = (this.castling_rights & (alliance.isWhite() ?
+                    BoardUtils.WHITE_KING_SIDE_CASTLE | BoardUtils.WHITE_QUEEN_SIDE_CASTLE :
+                    BoardUtils.BLACK_KING_SIDE_CASTLE | BoardUtils.BLACK_QUEEN_SIDE_CASTLE)) != 0;
+        else
+            is_first_move = false;
+        return Piece.createPiece(piece_type, alliance, tile_coordinate, is_first_move);
+    }
+
+    private boolean hasCastlingRightFor(final int rook_coordinate)
+    {
+        return (this.castling_rights & BoardUtils.getCastlingRightsOfTile(rook_coordinate)) != 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.chess.engine.board;
+
+/**
+ * Told about every piece a MutableBoard places or removes, including the ones undone by
+ * unmakeMove, so state derived from the piece placement can follow the board move by move
+ * instead of being rebuilt. Pieces are given as piece index (alliance * 6 + PieceType ordinal).
+ */
+public interface PieceListener
+{
+    void onPiecePlaced(int piece_index, int tile_coordinate);
+
+    void onPieceRemoved(int piece_index, int tile_coordinate);
+}
@@ -0,0 +1,171 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+
+import static com.chess.engine.board.BitBoardUtils.*;
+
+/**
+ * Destination tables for the non-sliding pieces, one bitboard per tile (and per alliance
+ * for pawns). Each table sits in its own holder class so it is only built the first time
+ * a piece of that type asks for it.
+ */
+public final class PrecomputedAttacks
+{
+    private PrecomputedAttacks()
+    {
+        throw new RuntimeException("PrecomputedAttacks class cannot be instantiated.");
+    }
+
+    public static long getKnightAttacks(final int tile_coordinate)
+    {
+        return KnightTable.ATTACKS[tile_coordinate];
+    }
+
+    public static long getKingAttacks(final int tile_coordinate)
+    {
+        return KingTable.ATTACKS[tile_coordinate];
+    }
+
+    public static long getPawnAttacks(final Alliance alliance, final int tile_coordinate)
+    {
+        return PawnTable.ATTACKS[alliance.ordinal()][tile_coordinate];
+    }
+
+    //Single-square advance; empty for a pawn already standing on its last rank
+    public static long getPawnPushes(final Alliance alliance, final int tile_coordinate)
+    {
+        return PawnTable.PUSHES[alliance.ordinal()][tile_coordinate];
+    }
+
+    //Two-square advance; only set for pawns on their starting rank
+    public static long getPawnJumps(final Alliance alliance, final int tile_coordinate)
+    {
+        return PawnTable.JUMPS[alliance.ordinal()][tile_coordinate];
+    }
+
+    //Tiles strictly between two tiles sharing a rank, file or diagonal; empty otherwise
+    public static long getBetween(final int first_coordinate, final int second_coordinate)
+    {
+        return LineTable.BETWEEN[first_coordinate * BoardUtils.NUM_TILES + second_coordinate];
+    }
+
+    //Whole rank, file or diagonal through both tiles (edge to edge); empty when they are not aligned
+    public static long getLine(final int first_coordinate, final int second_coordinate)
+    {
+        return LineTable.LINE[first_coordinate * BoardUtils.NUM_TILES + second_coordinate];
+    }
+
+    private static final class KnightTable
+    {
+        private static final long[] ATTACKS = initKnightAttacks();
+    }
+
+    private static final class KingTable
+    {
+        private static final long[] ATTACKS = initKingAttacks();
+    }
+
+    private static final class PawnTable
+    {
+        private static final long[][] ATTACKS = initPawnAttacks();
+        private static final long[][] PUSHES = initPawnPushes();
+        private static final long[][] JUMPS = initPawnJumps();
+    }
+
+    private static final class LineTable
+    {
+        private static final long[] BETWEEN = new long[BoardUtils.NUM_TILES * BoardUtils.NUM_TILES];
+        private static final long[] LINE = new long[BoardUtils.NUM_TILES * BoardUtils.NUM_TILES];
+
+        static
+        {
+            for(int first=0; first<BoardUtils.NUM_TILES; first++)
+            {
+                for(int second=0; second<BoardUtils.NUM_TILES; second++)
+                {
+                    if(first == second)     continue;
+                    final int index = first * BoardUtils.NUM_TILES + second;
+                    final long ends = squareMask(first) | squareMask(second);
+                    if(isSet(MagicBitBoards.getRookAttacks(first, EMPTY), second))
+                    {
+                        BETWEEN[index] = MagicBitBoards.getRookAttacks(first, ends) & MagicBitBoards.getRookAttacks(second, ends);
+                        LINE[index] = (MagicBitBoards.getRookAttacks(first, EMPTY) & MagicBitBoards.getRookAttacks(second, EMPTY)) | ends;
+                    }
+                    else if(isSet(MagicBitBoards.getBishopAttacks(first, EMPTY), second))
+                    {
+                        BETWEEN[index] = MagicBitBoards.getBishopAttacks(first, ends) & MagicBitBoards.getBishopAttacks(second, ends);
+                        LINE[index] = (MagicBitBoards.getBishopAttacks(first, EMPTY) & MagicBitBoards.getBishopAttacks(second, EMPTY)) | ends;
+                    }
+                }
+            }
+        }
+    }
+
+    private static long[] initKnightAttacks()
+    {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final long square = squareMask(i);
+            final long not_first_file = square & ~FIRST_FILE_MASK;
+            final long not_eighth_file = square & ~EIGHTH_FILE_MASK;
+            final long not_first_two_files = square & ~(FIRST_FILE_MASK | SECOND_FILE_MASK);
+            final long not_last_two_files = square & ~(SEVENTH_FILE_MASK | EIGHTH_FILE_MASK);
+            attacks[i] = (not_first_file >>> 17) | (not_eighth_file >>> 15) |
+                         (not_first_two_files >>> 10) | (not_last_two_files >>> 6) |
+                         (not_first_two_files << 6) | (not_last_two_files << 10) |
+                         (not_first_file << 15) | (not_eighth_file << 17);
+        }
+        return attacks;
+    }
+
+    private static long[] initKingAttacks()
+    {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final long square = squareMask(i);
+            final long not_first_file = square & ~FIRST_FILE_MASK;
+            final long not_eighth_file = square & ~EIGHTH_FILE_MASK;
+            attacks[i] = (not_first_file >>> 9) | (square >>> 8) | (not_eighth_file >>> 7) |
+                         (not_first_file >>> 1) | (not_eighth_file << 1) |
+                         (not_first_file << 7) | (square << 8) | (not_eighth_file << 9);
+        }
+        return attacks;
+    }
+
+    private static long[][] initPawnAttacks()
+    {
+        final long[][] attacks = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final long not_first_file = squareMask(i) & ~FIRST_FILE_MASK;
+            final long not_eighth_file = squareMask(i) & ~EIGHTH_FILE_MASK;
+            attacks[Alliance.WHITE.ordinal()][i] = (not_first_file >>> 9) | (not_eighth_file >>> 7);
+            attacks[Alliance.BLACK.ordinal()][i] = (not_first_file << 7) | (not_eighth_file << 9);
+        }
+        return attacks;
+    }
+
+    private static long[][] initPawnPushes()
+    {
+        final long[][] pushes = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            pushes[Alliance.WHITE.ordinal()][i] = squareMask(i) >>> 8;
+            pushes[Alliance.BLACK.ordinal()][i] = squareMask(i) << 8;
+        }
+        return pushes;
+    }
+
+    private static long[][] initPawnJumps()
+    {
+        final long[][] jumps = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            jumps[Alliance.WHITE.ordinal()][i] = (squareMask(i) & SECOND_RANK_MASK) >>> 16;
+            jumps[Alliance.BLACK.ordinal()][i] = (squareMask(i) & SEVENTH_RANK_MASK) << 16;
+        }
+        return jumps;
+    }
+}
@@ -0,0 +1,211 @@
+package com.chess.engine.board;
+
+/**
+ * Hands out the legal moves of a MutableBoard position one at a time, likeliest cutoff first:
+ * the transposition table move, then captures by most valuable victim / least valuable
+ * attacker, then the killer moves and the counter-move, then every other quiet move, best
+ * history score first. A stage is only generated once the stages before it are used up, so a
+ * node that cuts off on the hash move or a capture never generates its quiet moves at all.
+ *
+ * Keep one instance per search ply and reset it for every node; nothing is allocated then
+ * apart from the node's LegalMoveGenerator.
+ */
+public final class StagedMoveGenerator
+{
+    //from | to << 6, the index into a butterfly history table
+    public static final int BUTTERFLY_MASK = 0xFFF;
+
+    private static final int TT_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int COUNTER_MOVE = 5;
+    private static final int GENERATE_QUIETS = 6;
+    private static final int QUIETS = 7;
+    private static final int DONE = 8;
+
+    private final IntMoveList moves;
+    private int[] scores;
+    private MutableBoard board;
+    private LegalMoveGenerator legal_move_generator;
+    private int tt_move;
+    private int first_killer;
+    private int second_killer;
+    private int counter_move;
+    private int[] history;
+    private boolean captures_only;
+    private int stage;
+    private int index;
+
+    public StagedMoveGenerator()
+    {
+        this.moves = new IntMoveList();
+        this.scores = new int[IntMoveList.DEFAULT_CAPACITY];
+        this.stage = DONE;
+    }
+
+    public void reset(final MutableBoard board, final int tt_move, final int first_killer, final int second_killer)
+    {
+        reset(board, tt_move, first_killer, second_killer, MoveEncoding.NULL_MOVE, null);
+    }
+
+    /**
+     * Any of the moves may be MoveEncoding.NULL_MOVE; moves that are not legal here are skipped.
+     * history holds the side to move's quiet move scores indexed by from | to << 6, or is null
+     * to leave the quiet moves in generation order.
+     */
+    public void reset(final MutableBoard board, final int tt_move, final int first_killer, final int second_killer,
+                      final int counter_move, final int[] history)
+    {
+        this.board = board;
+        this.legal_move_generator = null;
+        this.tt_move = tt_move;
+        this.first_killer = first_killer;
+        this.second_killer = second_killer;
+        this.counter_move = counter_move;
+        this.history = history;
+        this.captures_only = false;
+        this.stage = TT_MOVE;
+        this.index = 0;
+        this.moves.clear();
+    }
+
+    //Only the captures and promotions, for the quiescence search
+    public void resetCaptures(final MutableBoard board)
+    {
+        reset(board, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, null);
+        this.captures_only = true;
+    }
+
+    //Next legal move, or MoveEncoding.NULL_MOVE once every stage is exhausted
+    public int nextMove()
+    {
+        while(true)
+        {
+            switch(this.stage)
+            {
+                case TT_MOVE:
+                    this.stage = GENERATE_CAPTURES;
+                    if(this.board.isPseudoLegal(this.tt_move) && isLegal(this.tt_move))
+                        return this.tt_move;
+                    break;
+                case GENERATE_CAPTURES:
+                    this.moves.clear();
+                    this.board.generateCaptures(this.moves);
+                    scoreCaptures();
+                    this.index = 0;
+                    this.stage = CAPTURES;
+                    break;
+                case CAPTURES:
+                    while(this.index < this.moves.size())
+                    {
+                        final int move = pickBest();
+                        if(move != this.tt_move && isLegal(move))
+                            return move;
+                    }
+                    this.stage = this.captures_only ? DONE : FIRST_KILLER;
+                    break;
+                case FIRST_KILLER:
+                    this.stage = SECOND_KILLER;
+                    if(isUsableKiller(this.first_killer))
+                        return this.first_killer;
+                    break;
+                case SECOND_KILLER:
+                    this.stage = COUNTER_MOVE;
+                    if(this.second_killer != this.first_killer && isUsableKiller(this.second_killer))
+                        return this.second_killer;
+                    break;
+                case COUNTER_MOVE:
+                    this.stage = GENERATE_QUIETS;
+                    if(this.counter_move != this.first_killer && this.counter_move != this.second_killer &&
+                       isUsableKiller(this.counter_move))
+                        return this.counter_move;
+                    break;
+                case GENERATE_QUIETS:
+                    this.moves.clear();
+                    this.board.generateQuietMoves(this.moves);
+                    scoreQuiets();
+                    this.index = 0;
+                    this.stage = QUIETS;
+                    break;
+                case QUIETS:
+                    while(this.index < this.moves.size())
+                    {
+                        final int move = this.history != null ? pickBest() : this.moves.get(this.index++);
+                        if(move != this.tt_move && move != this.first_killer && move != this.second_killer &&
+                           move != this.counter_move && isLegal(move))
+                            return move;
+                    }
+                    this.stage = DONE;
+                    break;
+                default:
+                    return MoveEncoding.NULL_MOVE;
+            }
+        }
+    }
+
+    //Killers and counter-moves come from other nodes, so they have to be re-checked against this position
+    private boolean isUsableKiller(final int killer)
+    {
+        return killer != this.tt_move && !MoveEncoding.isCapture(killer) && !MoveEncoding.isPromotion(killer) &&
+               this.board.isPseudoLegal(killer) && isLegal(killer);
+    }
+
+    private boolean isLegal(final int move)
+    {
+        if(this.legal_move_generator == null)
+            this.legal_move_generator = this.board.createLegalMoveGenerator();
+        return this.legal_move_generator.isLegal(move);
+    }
+
+    private void scoreCaptures()
+    {
+        if(this.scores.length < this.moves.size())
+            this.scores = new int[this.moves.size()];
+        for(int i=0; i<this.moves.size(); i++)
+            this.scores[i] = scoreCapture(this.board, this.moves.get(i));
+    }
+
+    private void scoreQuiets()
+    {
+        if(this.history == null)
+            return;
+        if(this.scores.length < this.moves.size())
+            this.scores = new int[this.moves.size()];
+        for(int i=0; i<this.moves.size(); i++)
+            this.scores[i] = this.history[this.moves.get(i) & BUTTERFLY_MASK];
+    }
+
+    //Most valuable victim first, least valuable attacker as the tie break; promotions count the piece gained
+    static int scoreCapture(final MutableBoard board, final int move)
+    {
+        int score = 0;
+        if(MoveEncoding.isCapture(move))
+        {
+            final int victim = MoveEncoding.isEnPassant(move) ? MutableBoard.PAWN :
+                               board.getPieceIndex(MoveEncoding.getDestinationCoordinate(move)) % BitBoardUtils.NUM_PIECE_TYPES;
+            final int attacker = board.getPieceIndex(MoveEncoding.getCurrentCoordinate(move)) % BitBoardUtils.NUM_PIECE_TYPES;
+            score += BitBoardUtils.NUM_PIECE_TYPES * (victim + 1) - attacker;
+        }
+        if(MoveEncoding.isPromotion(move))
+            score += BitBoardUtils.NUM_PIECE_TYPES * MoveEncoding.getPromotionType(move);
+        return score;
+    }
+
+    //One step of a selection sort: only as much of the list gets ordered as the search consumes
+    private int pickBest()
+    {
+        int best = this.index;
+        for(int i=this.index + 1; i<this.moves.size(); i++)
+        {
+            if(this.scores[i] > this.scores[best])
+                best = i;
+        }
+        this.moves.swap(this.index, best);
+        final int score = this.scores[this.index];
+        this.scores[this.index] = this.scores[best];
+        this.scores[best] = score;
+        return this.moves.get(this.index++);
+    }
+}
@@ -0,0 +1,138 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Static exchange evaluation: the material a capture wins or loses once every piece that can
+ * recapture on the destination tile has had its turn, each side always recapturing with its
+ * least valuable attacker and free to stop when going on would lose more. The exchange is played
+ * out on an occupancy bitboard alone, so sliders lined up behind a capturer join in as it leaves,
+ * and no board is copied or moved on. Pins are not taken into account.
+ */
+public final class StaticExchange
+{
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+    private static final Alliance[] ALLIANCES = Alliance.values();
+    private static final int[] PIECE_VALUES = pieceValues();
+    //Every piece on the board recapturing once; the size of a gain buffer
+    public static final int MAX_EXCHANGES = 33;
+
+    private StaticExchange()
+    {
+        throw new RuntimeException("StaticExchange class cannot be instantiated.");
+    }
+
+    private static int[] pieceValues()
+    {
+        final int[] piece_values = new int[BitBoardUtils.NUM_PIECE_TYPES];
+        for(final PieceType piece_type : PieceType.values())
+            piece_values[piece_type.ordinal()] = piece_type.getPieceValue();
+        return piece_values;
+    }
+
+    public static int getPieceValue(final int piece_type)
+    {
+        return PIECE_VALUES[piece_type];
+    }
+
+    //Centipawns the current player gains by the move and the exchange it starts; 0 for a plain quiet move onto a safe tile
+    public static int evaluate(final Board board, final Move move)
+    {
+        return evaluate(board.getPieceBitBoards(), move.toIntMove(), new int[MAX_EXCHANGES]);
+    }
+
+    //gain is scratch space of MAX_EXCHANGES ints, kept by the caller so the search does not allocate per call
+    public static int evaluate(final MutableBoard board, final int move, final int[] gain)
+    {
+        return evaluate(board.getPieceBitBoards(), move, gain);
+    }
+
+    private static int evaluate(final long[] piece_bitboards, final int move, final int[] gain)
+    {
+        final int from = MoveEncoding.getCurrentCoordinate(move);
+        final int to = MoveEncoding.getDestinationCoordinate(move);
+        final int mover = getPieceIndex(piece_bitboards, from);
+        int side = mover / BitBoardUtils.NUM_PIECE_TYPES;
+
+        long occupancy = BitBoardUtils.EMPTY;
+        for(final long bitboard : piece_bitboards)
+            occupancy |= bitboard;
+
+        gain[0] = 0;
+        if(MoveEncoding.isEnPassant(move))
+        {
+            gain[0] = PIECE_VALUES[PAWN];
+            occupancy ^= BitBoardUtils.squareMask(to + (-ALLIANCES[side].getDirection() * BoardUtils.NUM_FILES));
+        }
+        else if(MoveEncoding.isCapture(move))
+            gain[0] = PIECE_VALUES[getPieceIndex(piece_bitboards, to) % BitBoardUtils.NUM_PIECE_TYPES];
+        //Value of the piece now standing on the tile, the next one to be captured
+        int on_tile = PIECE_VALUES[mover % BitBoardUtils.NUM_PIECE_TYPES];
+        if(MoveEncoding.isPromotion(move))
+        {
+            on_tile = PIECE_VALUES[MoveEncoding.getPromotionType(move)];
+            gain[0] += on_tile - PIECE_VALUES[PAWN];
+        }
+
+        long from_square = BitBoardUtils.squareMask(from);
+        int depth = 0;
+        while(true)
+        {
+            occupancy ^= from_square;
+            side ^= 1;
+            final long attackers = getAttackers(piece_bitboards, to, side, occupancy) & occupancy;
+            if(attackers == 0)
+                break;
+            depth++;
+            gain[depth] = on_tile - gain[depth - 1];
+            final int attacker_type = getLeastValuableAttacker(piece_bitboards, attackers, side);
+            from_square = Long.lowestOneBit(attackers & piece_bitboards[side * BitBoardUtils.NUM_PIECE_TYPES + attacker_type]);
+            on_tile = PIECE_VALUES[attacker_type];
+        }
+        //Back up the sequence: each side takes the exchange only if it beats stopping
+        while(depth > 0)
+        {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    private static int getPieceIndex(final long[] piece_bitboards, final int tile_coordinate)
+    {
+        for(int i=0; i<piece_bitboards.length; i++)
+        {
+            if(BitBoardUtils.isSet(piece_bitboards[i], tile_coordinate))
+                return i;
+        }
+        throw new RuntimeException("No piece on tile " + tile_coordinate);
+    }
+
+    private static int getLeastValuableAttacker(final long[] piece_bitboards, final long attackers, final int side)
+    {
+        final int base = side * BitBoardUtils.NUM_PIECE_TYPES;
+        for(int piece_type=PAWN; piece_type<KING; piece_type++)
+        {
+            if((attackers & piece_bitboards[base + piece_type]) != 0)
+                return piece_type;
+        }
+        return KING;
+    }
+
+    private static long getAttackers(final long[] piece_bitboards, final int tile_coordinate, final int side, final long occupancy)
+    {
+        final int base = side * BitBoardUtils.NUM_PIECE_TYPES;
+        final long queens = piece_bitboards[base + QUEEN];
+        return (PrecomputedAttacks.getPawnAttacks(ALLIANCES[side ^ 1], tile_coordinate) & piece_bitboards[base + PAWN]) |
+               (PrecomputedAttacks.getKnightAttacks(tile_coordinate) & piece_bitboards[base + KNIGHT]) |
+               (PrecomputedAttacks.getKingAttacks(tile_coordinate) & piece_bitboards[base + KING]) |
+               (MagicBitBoards.getBishopAttacks(tile_coordinate, occupancy) & (piece_bitboards[base + BISHOP] | queens)) |
+               (MagicBitBoards.getRookAttacks(tile_coordinate, occupancy) & (piece_bitboards[base + ROOK] | queens));
+    }
+}
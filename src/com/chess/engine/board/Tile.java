@@ -1,5 +1,6 @@
 package com.chess.engine.board;
 
+import com.chess.engine.Alliance;
 import com.chess.engine.pieces.Piece;
 import com.google.common.collect.ImmutableMap;
 import java.util.HashMap;
@@ -12,6 +13,26 @@ public abstract class Tile
     protected final int tile_Coordinate;
     private static final Map<Integer, EmptyTile> EMPTY_TILES_CACHE = createAllPossibleEmptyTiles();
 
+    //One OccupiedTile per cached Piece, indexed by Piece.getCacheIndex()
+    private static final class OccupiedTilesCache
+    {
+        private static final OccupiedTile[] TILES = createAllPossibleOccupiedTiles();
+    }
+
+    private static OccupiedTile[] createAllPossibleOccupiedTiles()
+    {
+        final OccupiedTile[] occupied_tiles = new OccupiedTile[Piece.NUM_CACHED_PIECES];
+        for(final Piece.PieceType piece_type : Piece.PieceType.values())
+            for(final Alliance alliance : Alliance.values())
+                for(int i=0;i<NUM_TILES;i++)
+                    for(final boolean is_first_move : new boolean[]{true, false})
+                    {
+                        final Piece piece = Piece.createPiece(piece_type, alliance, i, is_first_move);
+                        occupied_tiles[piece.getCacheIndex()] = new OccupiedTile(i, piece);
+                    }
+        return occupied_tiles;
+    }
+
     private static Map<Integer, EmptyTile> createAllPossibleEmptyTiles()
     {
         final Map<Integer, EmptyTile> emptyTileMap = new HashMap<>();
@@ -29,7 +50,14 @@ public abstract class Tile
 
     public static Tile createTile(final int tile_Coordiante, final Piece piece)
     {
-        return piece != null ? new OccupiedTile(tile_Coordiante, piece) : EMPTY_TILES_CACHE.get(tile_Coordiante);
+        if(piece == null)
+            return EMPTY_TILES_CACHE.get(tile_Coordiante);
+
+        //Pieces built directly through a constructor rather than Piece.createPiece are not in the cache
+        final OccupiedTile cached_tile = OccupiedTilesCache.TILES[piece.getCacheIndex()];
+        if(cached_tile.getPiece() == piece && cached_tile.getCoordinate() == tile_Coordiante)
+            return cached_tile;
+        return new OccupiedTile(tile_Coordiante, piece);
     }
 
     public int getCoordinate()  {
@@ -0,0 +1,96 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+
+import java.util.Random;
+
+/**
+ * Random keys for 64 bit Zobrist hashing. A position's key is the XOR of the keys of its
+ * pieces, the side to move, its castling rights and the file of its en-passant pawn, so a
+ * move only has to XOR out what it removes and XOR in what it adds.
+ */
+public final class Zobrist
+{
+    //Fixed seed keeps keys (and anything persisted against them) stable between runs
+    private static final Random RANDOM = new Random(0x4A43686573734CL);
+
+    private static final long[][] PIECE_KEYS = initPieceKeys();
+    private static final long[] CASTLING_KEYS = initKeys(BoardUtils.ALL_CASTLING_RIGHTS + 1);
+    private static final long[] EN_PASSANT_FILE_KEYS = initKeys(BoardUtils.NUM_FILES);
+    public static final long BLACK_TO_MOVE_KEY = RANDOM.nextLong();
+
+    private Zobrist()
+    {
+        throw new RuntimeException("Zobrist class cannot be instantiated.");
+    }
+
+    private static long[][] initPieceKeys()
+    {
+        final long[][] keys = new long[BitBoardUtils.NUM_PIECE_BITBOARDS][];
+        for(int i=0; i<keys.length; i++)
+            keys[i] = initKeys(BoardUtils.NUM_TILES);
+        return keys;
+    }
+
+    private static long[] initKeys(final int count)
+    {
+        final long[] keys = new long[count];
+        for(int i=0; i<count; i++)
+            keys[i] = RANDOM.nextLong();
+        return keys;
+    }
+
+    public static long pieceKey(final int piece_index, final int tile_coordinate)
+    {
+        return PIECE_KEYS[piece_index][tile_coordinate];
+    }
+
+    public static long pieceKey(final Piece piece)
+    {
+        return PIECE_KEYS[BitBoardUtils.pieceIndex(piece.getPieceAlliance(), piece.getPieceType())][piece.getPiecePosition()];
+    }
+
+    public static long castlingKey(final int castling_rights)
+    {
+        return CASTLING_KEYS[castling_rights];
+    }
+
+    public static long enPassantKey(final int en_passant_square)
+    {
+        return en_passant_square < 0 ? 0L : EN_PASSANT_FILE_KEYS[en_passant_square % BoardUtils.NUM_FILES];
+    }
+
+    public static long enPassantKey(final Pawn en_passant_pawn)
+    {
+        return en_passant_pawn == null ? 0L : EN_PASSANT_FILE_KEYS[en_passant_pawn.getPiecePosition() % BoardUtils.NUM_FILES];
+    }
+
+    public static long sideToMoveKey(final Alliance alliance)
+    {
+        return alliance.isBlack() ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    //Key of the pawns alone, for caching pawn structure: the same piece keys, over the pawn bitboards only
+    public static long calculatePawnKey(final long white_pawns, final long black_pawns)
+    {
+        long key = 0L;
+        for(long pawns = white_pawns; pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns))
+            key ^= PIECE_KEYS[BitBoardUtils.pieceIndex(Alliance.WHITE, Piece.PieceType.PAWN)][BitBoardUtils.firstSquare(pawns)];
+        for(long pawns = black_pawns; pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns))
+            key ^= PIECE_KEYS[BitBoardUtils.pieceIndex(Alliance.BLACK, Piece.PieceType.PAWN)][BitBoardUtils.firstSquare(pawns)];
+        return key;
+    }
+
+    //Full recomputation, used when a board is built from scratch rather than by a move
+    public static long calculateKey(final Board board)
+    {
+        long key = sideToMoveKey(board.getCurrentPlayerAlliance()) ^
+                   castlingKey(board.getCastlingRights()) ^
+                   enPassantKey(board.getEnPassantPawn());
+        for(long occupied = board.getAllOccupancy(); occupied != 0; occupied = BitBoardUtils.clearFirstSquare(occupied))
+            key ^= pieceKey(board.getPiece(BitBoardUtils.firstSquare(occupied)));
+        return key;
+    }
+}
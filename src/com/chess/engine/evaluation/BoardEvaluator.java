@@ -0,0 +1,188 @@
+package com.chess.engine.evaluation;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.board.PieceListener;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Handcrafted evaluation: material and piece-square values plus pawn structure, tapered from
+ * their middlegame to their endgame weights as the pieces come off. On the attached MutableBoard
+ * the material totals follow makeMove/unmakeMove piece by piece, and the pawn structure comes
+ * out of a PawnHashTable unless the pawns changed, so a leaf allocates nothing; a Board is
+ * summed up from its pieces.
+ *
+ * Keeps its own pawn hash table and material totals, so use one instance per thread.
+ */
+public class BoardEvaluator implements Evaluator, PieceListener
+{
+    private static final int SHIELD_FIRST_ROW = 10;
+    private static final int SHIELD_SECOND_ROW = 5;
+    //Per tile the defending king is further than the attacking king from a passed pawn's stop tile
+    private static final int PASSED_KING_DISTANCE = 5;
+
+    private final PawnHashTable pawn_hash_table;
+    //Material plus piece-square totals of the attached board from White's point of view, and the game phase they are blended by
+    private int middlegame_score;
+    private int endgame_score;
+    private int phase;
+
+    public BoardEvaluator()
+    {
+        this(new PawnHashTable(PawnHashTable.DEFAULT_SIZE));
+    }
+
+    public BoardEvaluator(final PawnHashTable pawn_hash_table)
+    {
+        this.pawn_hash_table = pawn_hash_table;
+    }
+
+    //Sums up the board's pieces once, then follows its moves
+    @Override
+    public void attach(final MutableBoard board)
+    {
+        this.middlegame_score = 0;
+        this.endgame_score = 0;
+        this.phase = 0;
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final int piece_index = board.getPieceIndex(i);
+            if(piece_index != MutableBoard.NO_PIECE)
+                onPiecePlaced(piece_index, i);
+        }
+        board.setPieceListener(this);
+    }
+
+    @Override
+    public void onPiecePlaced(final int piece_index, final int tile_coordinate)
+    {
+        this.middlegame_score += PieceSquareTables.getMiddlegameScore(piece_index, tile_coordinate);
+        this.endgame_score += PieceSquareTables.getEndgameScore(piece_index, tile_coordinate);
+        this.phase += PieceSquareTables.getPhaseWeight(piece_index);
+    }
+
+    @Override
+    public void onPieceRemoved(final int piece_index, final int tile_coordinate)
+    {
+        this.middlegame_score -= PieceSquareTables.getMiddlegameScore(piece_index, tile_coordinate);
+        this.endgame_score -= PieceSquareTables.getEndgameScore(piece_index, tile_coordinate);
+        this.phase -= PieceSquareTables.getPhaseWeight(piece_index);
+    }
+
+    //Same pawn hash table size, but a table of its own
+    @Override
+    public Evaluator newInstance()
+    {
+        return new BoardEvaluator(new PawnHashTable(this.pawn_hash_table.getCapacity()));
+    }
+
+    public PawnHashTable getPawnHashTable()
+    {
+        return this.pawn_hash_table;
+    }
+
+    //board has to be the attached one
+    @Override
+    public int evaluate(final MutableBoard board)
+    {
+        return evaluate(this.middlegame_score, this.endgame_score, this.phase, board.getPawnKey(),
+                        board.getPieceBitBoard(Alliance.WHITE, PieceType.PAWN), board.getPieceBitBoard(Alliance.BLACK, PieceType.PAWN),
+                        board.getPieceBitBoard(Alliance.WHITE, PieceType.KING), board.getPieceBitBoard(Alliance.BLACK, PieceType.KING),
+                        board.getSideToMove());
+    }
+
+    @Override
+    public int evaluate(final Board board)
+    {
+        int middlegame_score = 0;
+        int endgame_score = 0;
+        int phase = 0;
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final Piece piece = board.getPiece(i);
+            if(piece == null)
+                continue;
+            final int piece_index = BitBoardUtils.pieceIndex(piece.getPieceAlliance(), piece.getPieceType());
+            middlegame_score += PieceSquareTables.getMiddlegameScore(piece_index, i);
+            endgame_score += PieceSquareTables.getEndgameScore(piece_index, i);
+            phase += PieceSquareTables.getPhaseWeight(piece_index);
+        }
+        return evaluate(middlegame_score, endgame_score, phase, board.getPawnKey(),
+                        board.getPieceBitBoard(Alliance.WHITE, PieceType.PAWN), board.getPieceBitBoard(Alliance.BLACK, PieceType.PAWN),
+                        board.getPieceBitBoard(Alliance.WHITE, PieceType.KING), board.getPieceBitBoard(Alliance.BLACK, PieceType.KING),
+                        board.getCurrentPlayerAlliance());
+    }
+
+    private int evaluate(int middlegame_score, int endgame_score, final int phase, final long pawn_key,
+                         final long white_pawns, final long black_pawns, final long white_king, final long black_king,
+                         final Alliance side_to_move)
+    {
+        final PawnHashTable.Entry pawn_entry = this.pawn_hash_table.get(pawn_key, white_pawns, black_pawns);
+        middlegame_score += pawn_entry.getMiddlegameScore();
+        endgame_score += pawn_entry.getEndgameScore();
+
+        //The king terms need both kings on the board, which hand-set positions do not always have
+        if(white_king != 0 && black_king != 0)
+        {
+            final int white_king_square = BitBoardUtils.firstSquare(white_king);
+            final int black_king_square = BitBoardUtils.firstSquare(black_king);
+            middlegame_score += calculatePawnShield(white_king_square, white_pawns, Alliance.WHITE) -
+                                calculatePawnShield(black_king_square, black_pawns, Alliance.BLACK);
+            endgame_score += calculatePassedPawnKingDistance(pawn_entry.getPassedPawns() & white_pawns, Alliance.WHITE,
+                                                             white_king_square, black_king_square) -
+                             calculatePassedPawnKingDistance(pawn_entry.getPassedPawns() & black_pawns, Alliance.BLACK,
+                                                             black_king_square, white_king_square);
+        }
+        final int score = taper(middlegame_score, endgame_score, phase);
+        return side_to_move.isWhite() ? score : -score;
+    }
+
+    //Own pawns on the king's file and both neighbours, one and two rows in front of a king still on its first two ranks
+    private static int calculatePawnShield(final int king_square, final long pawns, final Alliance alliance)
+    {
+        final int row = king_square / BoardUtils.NUM_FILES;
+        final int rows_advanced = alliance.isWhite() ? BoardUtils.NUM_FILES - 1 - row : row;
+        if(rows_advanced > 1)
+            return 0;
+        final int file = king_square % BoardUtils.NUM_FILES;
+        final long files = PawnStructure.getFileMask(file) | PawnStructure.getAdjacentFileMask(file);
+        final int first_row = row + alliance.getDirection();
+        final int second_row = first_row + alliance.getDirection();
+        return SHIELD_FIRST_ROW * BitBoardUtils.bitCount(pawns & files & rowMask(first_row)) +
+               SHIELD_SECOND_ROW * BitBoardUtils.bitCount(pawns & files & rowMask(second_row));
+    }
+
+    private static long rowMask(final int row)
+    {
+        return row < 0 || row >= BoardUtils.NUM_FILES ? BitBoardUtils.EMPTY : 0xFFL << (row * BoardUtils.NUM_FILES);
+    }
+
+    private static int calculatePassedPawnKingDistance(final long passed_pawns, final Alliance alliance,
+                                                       final int own_king_square, final int enemy_king_square)
+    {
+        int score = 0;
+        for(long pawns = passed_pawns; pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns))
+        {
+            final int stop_square = BitBoardUtils.firstSquare(pawns) + alliance.getDirection() * BoardUtils.NUM_FILES;
+            score += PASSED_KING_DISTANCE * (distance(enemy_king_square, stop_square) - distance(own_king_square, stop_square));
+        }
+        return score;
+    }
+
+    private static int distance(final int first_square, final int second_square)
+    {
+        return Math.max(Math.abs(first_square / BoardUtils.NUM_FILES - second_square / BoardUtils.NUM_FILES),
+                        Math.abs(first_square % BoardUtils.NUM_FILES - second_square % BoardUtils.NUM_FILES));
+    }
+
+    static int taper(final int middlegame_score, final int endgame_score, final int phase)
+    {
+        final int middlegame_phase = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (middlegame_score * middlegame_phase + endgame_score * (PieceSquareTables.MAX_PHASE - middlegame_phase)) /
+               PieceSquareTables.MAX_PHASE;
+    }
+}
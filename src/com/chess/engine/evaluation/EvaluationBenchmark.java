@@ -0,0 +1,75 @@
+package com.chess.engine.evaluation;
+
+import com.chess.engine.board.IntMoveList;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.perft.PerftPosition;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Evaluations per second of the handcrafted evaluator and, given a weight file, the NNUE one.
+ * Each evaluator follows random games from the reference positions on a MutableBoard, so the
+ * incremental updates of makeMove/unmakeMove are paid for as in a search.
+ *
+ * Usage: EvaluationBenchmark [nnue_weight_file] [evaluations]
+ */
+public final class EvaluationBenchmark
+{
+    private static final int GAME_LENGTH = 40;
+
+    private EvaluationBenchmark()
+    {
+        throw new RuntimeException("EvaluationBenchmark class cannot be instantiated.");
+    }
+
+    public static void main(final String[] args) throws IOException
+    {
+        final long evaluations = args.length > 1 ? Long.parseLong(args[1]) : 5000000L;
+        run("handcrafted", new BoardEvaluator(), evaluations);
+        if(args.length > 0)
+            run("nnue", new NnueEvaluator(NnueNetwork.load(Paths.get(args[0]))), evaluations);
+    }
+
+    private static void run(final String name, final Evaluator evaluator, final long evaluations)
+    {
+        //Same games for every evaluator; the first pass only warms the JIT up
+        for(int pass=0; pass<2; pass++)
+        {
+            final Random random = new Random(1);
+            final IntMoveList moves = new IntMoveList();
+            final PerftPosition[] positions = PerftPosition.values();
+            long count = 0;
+            long checksum = 0;
+            final long start_time = System.nanoTime();
+            while(count < evaluations)
+            {
+                final MutableBoard board = new MutableBoard(positions[(int) (count % positions.length)].createBoard());
+                evaluator.attach(board);
+                int made = 0;
+                while(made < GAME_LENGTH && count < evaluations)
+                {
+                    moves.clear();
+                    board.generateLegalMoves(moves);
+                    if(moves.isEmpty())
+                        break;
+                    //Every position in the game is evaluated after each of its legal moves, as at a search's leaves
+                    for(int i=0; i<moves.size(); i++)
+                    {
+                        board.makeMove(moves.get(i));
+                        checksum += evaluator.evaluate(board);
+                        board.unmakeMove();
+                        count++;
+                    }
+                    board.makeMove(moves.get(random.nextInt(moves.size())));
+                    made++;
+                }
+            }
+            final double seconds = (System.nanoTime() - start_time) / 1e9;
+            if(pass == 1)
+                System.out.println(String.format("%-12s %,d evaluations in %.3fs, %,.0f evaluations/s (checksum %d)",
+                                                 name, count, seconds, count / seconds, checksum));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.chess.engine.evaluation;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MutableBoard;
+
+/**
+ * Static evaluation of a position in centipawns, from the side to move's point of view. An
+ * evaluator may keep state that follows one MutableBoard through the search, so every search
+ * thread attaches its own instance to its own board.
+ */
+public interface Evaluator
+{
+    //Called once before evaluating positions of board, to pick up its current state
+    void attach(MutableBoard board);
+
+    int evaluate(MutableBoard board);
+
+    int evaluate(Board board);
+
+    //An evaluator of the same kind for another thread: read-only data is shared, per-board state is not
+    Evaluator newInstance();
+}
@@ -0,0 +1,92 @@
+package com.chess.engine.evaluation;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.board.PieceListener;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Evaluation by an NnueNetwork. The hidden layer input of both sides, the accumulators, follows
+ * the attached MutableBoard piece by piece: every piece placed or removed by makeMove or
+ * unmakeMove adds or subtracts one weight column per side, so a leaf only runs the small
+ * output layer. The network is shared between threads; the accumulators belong to one board.
+ */
+public final class NnueEvaluator implements Evaluator, PieceListener
+{
+    private static final int WHITE = Alliance.WHITE.ordinal();
+    private static final int BLACK = Alliance.BLACK.ordinal();
+
+    private final NnueNetwork network;
+    private final short[][] accumulators;
+
+    public NnueEvaluator(final NnueNetwork network)
+    {
+        this.network = network;
+        this.accumulators = new short[2][network.getHiddenSize()];
+    }
+
+    @Override
+    public Evaluator newInstance()
+    {
+        return new NnueEvaluator(this.network);
+    }
+
+    //Rebuilds both accumulators from the board's pieces, then follows its moves
+    @Override
+    public void attach(final MutableBoard board)
+    {
+        this.network.resetAccumulator(this.accumulators[WHITE]);
+        this.network.resetAccumulator(this.accumulators[BLACK]);
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final int piece_index = board.getPieceIndex(i);
+            if(piece_index != MutableBoard.NO_PIECE)
+                onPiecePlaced(piece_index, i);
+        }
+        board.setPieceListener(this);
+    }
+
+    @Override
+    public void onPiecePlaced(final int piece_index, final int tile_coordinate)
+    {
+        this.network.addFeature(this.accumulators[WHITE], NnueNetwork.getFeature(WHITE, piece_index, tile_coordinate));
+        this.network.addFeature(this.accumulators[BLACK], NnueNetwork.getFeature(BLACK, piece_index, tile_coordinate));
+    }
+
+    @Override
+    public void onPieceRemoved(final int piece_index, final int tile_coordinate)
+    {
+        this.network.removeFeature(this.accumulators[WHITE], NnueNetwork.getFeature(WHITE, piece_index, tile_coordinate));
+        this.network.removeFeature(this.accumulators[BLACK], NnueNetwork.getFeature(BLACK, piece_index, tile_coordinate));
+    }
+
+    @Override
+    public int evaluate(final MutableBoard board)
+    {
+        final int us = board.getSideToMove().ordinal();
+        return this.network.evaluate(this.accumulators[us], this.accumulators[us ^ 1]);
+    }
+
+    //Immutable boards have nothing to follow, so their accumulators are built from scratch
+    @Override
+    public int evaluate(final Board board)
+    {
+        final short[][] accumulators = new short[2][this.network.getHiddenSize()];
+        for(int perspective=WHITE; perspective<=BLACK; perspective++)
+        {
+            this.network.resetAccumulator(accumulators[perspective]);
+            for(int i=0; i<BoardUtils.NUM_TILES; i++)
+            {
+                final Piece piece = board.getPiece(i);
+                if(piece != null)
+                    this.network.addFeature(accumulators[perspective], NnueNetwork.getFeature(perspective,
+                            BitBoardUtils.pieceIndex(piece.getPieceAlliance(), piece.getPieceType()), i));
+            }
+        }
+        final int us = board.getCurrentPlayerAlliance().ordinal();
+        return this.network.evaluate(accumulators[us], accumulators[us ^ 1]);
+    }
+}
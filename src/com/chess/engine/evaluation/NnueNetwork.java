@@ -0,0 +1,148 @@
+package com.chess.engine.evaluation;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.search.SearchResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Quantized weights of a small efficiently updatable neural network: 768 inputs (piece, colour
+ * and tile, seen from one side) into a hidden layer shared by both sides' accumulators, then
+ * the side to move's and the other side's clipped hidden layers into one output.
+ *
+ * Weight file layout, little-endian:
+ *   int     magic (0x4E4E5545, "NNUE")
+ *   int     hidden_size
+ *   short   feature_weights[768 * hidden_size], the hidden_size weights of feature 0 first
+ *   short   feature_biases[hidden_size]
+ *   short   output_weights[2 * hidden_size], side to move's half first
+ *   int     output_bias
+ *
+ * Hidden values are scaled by HIDDEN_SCALE and output weights by OUTPUT_SCALE.
+ *
+ * The loops below are plain counted loops over primitive arrays with nothing but the element
+ * arithmetic in their bodies, which is the shape HotSpot's superword pass turns into SIMD code.
+ */
+public final class NnueNetwork
+{
+    public static final int MAGIC = 0x4E4E5545;
+    public static final int INPUT_SIZE = BitBoardUtils.NUM_PIECE_BITBOARDS * BoardUtils.NUM_TILES;
+    public static final int HIDDEN_SCALE = 255;
+    public static final int OUTPUT_SCALE = 64;
+    //Output units per centipawn-ish evaluation unit the network was trained against
+    public static final int EVALUATION_SCALE = 400;
+    //Outputs are kept below the mate scores, whatever weights were loaded
+    public static final int MAX_EVALUATION = SearchResult.MATE_SCORE - SearchResult.MAX_MATE_PLY - 1;
+
+    private final int hidden_size;
+    private final short[] feature_weights;
+    private final short[] feature_biases;
+    private final short[] output_weights;
+    private final int output_bias;
+
+    NnueNetwork(final int hidden_size, final short[] feature_weights, final short[] feature_biases,
+                final short[] output_weights, final int output_bias)
+    {
+        if(feature_weights.length != INPUT_SIZE * hidden_size || feature_biases.length != hidden_size ||
+           output_weights.length != 2 * hidden_size)
+            throw new RuntimeException("NNUE weight arrays do not match hidden size " + hidden_size);
+        this.hidden_size = hidden_size;
+        this.feature_weights = feature_weights;
+        this.feature_biases = feature_biases;
+        this.output_weights = output_weights;
+        this.output_bias = output_bias;
+    }
+
+    public static NnueNetwork load(final Path path) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if(buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC)
+            throw new IOException("Not an NNUE weight file: " + path);
+        final int hidden_size = buffer.getInt();
+        final long expected_bytes = ((long) INPUT_SIZE * hidden_size + hidden_size + 2L * hidden_size) * Short.BYTES + Integer.BYTES;
+        if(hidden_size <= 0 || buffer.remaining() != expected_bytes)
+            throw new IOException("NNUE weight file " + path + " has the wrong size for hidden size " + hidden_size);
+
+        final short[] feature_weights = readShorts(buffer, INPUT_SIZE * hidden_size);
+        final short[] feature_biases = readShorts(buffer, hidden_size);
+        final short[] output_weights = readShorts(buffer, 2 * hidden_size);
+        return new NnueNetwork(hidden_size, feature_weights, feature_biases, output_weights, buffer.getInt());
+    }
+
+    private static short[] readShorts(final ByteBuffer buffer, final int count)
+    {
+        final short[] values = new short[count];
+        buffer.asShortBuffer().get(values);
+        buffer.position(buffer.position() + count * Short.BYTES);
+        return values;
+    }
+
+    public int getHiddenSize()
+    {
+        return this.hidden_size;
+    }
+
+    /**
+     * Input of a piece as seen from one side: own pieces before enemy ones, and tiles mirrored
+     * top to bottom for Black, so both sides see their own pieces the way White does.
+     */
+    static int getFeature(final int perspective, final int piece_index, final int tile_coordinate)
+    {
+        final int alliance_index = piece_index / BitBoardUtils.NUM_PIECE_TYPES;
+        final int piece_type = piece_index % BitBoardUtils.NUM_PIECE_TYPES;
+        final int relative_piece = (alliance_index == perspective ? 0 : BitBoardUtils.NUM_PIECE_TYPES) + piece_type;
+        final int relative_tile = perspective == Alliance.WHITE.ordinal() ? tile_coordinate : tile_coordinate ^ 56;
+        return relative_piece * BoardUtils.NUM_TILES + relative_tile;
+    }
+
+    void resetAccumulator(final short[] accumulator)
+    {
+        System.arraycopy(this.feature_biases, 0, accumulator, 0, this.hidden_size);
+    }
+
+    void addFeature(final short[] accumulator, final int feature)
+    {
+        final short[] weights = this.feature_weights;
+        final int size = this.hidden_size;
+        final int offset = feature * size;
+        for(int i=0; i<size; i++)
+            accumulator[i] += weights[offset + i];
+    }
+
+    void removeFeature(final short[] accumulator, final int feature)
+    {
+        final short[] weights = this.feature_weights;
+        final int size = this.hidden_size;
+        final int offset = feature * size;
+        for(int i=0; i<size; i++)
+            accumulator[i] -= weights[offset + i];
+    }
+
+    //Output layer over both clipped accumulators, in centipawns for the side whose accumulator comes first
+    int evaluate(final short[] own_accumulator, final short[] enemy_accumulator)
+    {
+        final long sum = dot(own_accumulator, 0) + dot(enemy_accumulator, this.hidden_size) + this.output_bias;
+        final long evaluation = sum * EVALUATION_SCALE / (HIDDEN_SCALE * OUTPUT_SCALE);
+        return (int) Math.max(-MAX_EVALUATION, Math.min(evaluation, MAX_EVALUATION));
+    }
+
+    //Each product fits an int, but a wide hidden layer of large weights can overflow an int sum
+    private long dot(final short[] accumulator, final int weight_offset)
+    {
+        final short[] weights = this.output_weights;
+        final int size = this.hidden_size;
+        long sum = 0;
+        for(int i=0; i<size; i++)
+        {
+            final int clipped = Math.min(Math.max(accumulator[i], 0), HIDDEN_SCALE);
+            sum += clipped * weights[weight_offset + i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,101 @@
+package com.chess.engine.evaluation;
+
+/**
+ * Cache of pawn structure evaluations keyed by the pawn-only Zobrist key. Pawns move far less
+ * often than pieces, so most nodes of a search share their pawn structure with a node seen
+ * shortly before and the table answers them without recomputing anything. Belongs to one
+ * search thread; the entries are allocated up front and overwritten in place.
+ */
+public final class PawnHashTable
+{
+    public static final int DEFAULT_SIZE = 1 << 14;
+
+    private final Entry[] entries;
+    private final int index_mask;
+    private long probes;
+    private long hits;
+
+    //size is rounded down to a power of two
+    public PawnHashTable(final int size)
+    {
+        final int capacity = Integer.highestOneBit(Math.max(size, 1));
+        this.entries = new Entry[capacity];
+        for(int i=0; i<capacity; i++)
+            this.entries[i] = new Entry();
+        this.index_mask = capacity - 1;
+    }
+
+    //Entry for the given pawns, recomputed from them only if the slot holds another pawn structure
+    public Entry get(final long pawn_key, final long white_pawns, final long black_pawns)
+    {
+        this.probes++;
+        final Entry entry = this.entries[(int) pawn_key & this.index_mask];
+        if(entry.key == pawn_key && entry.is_filled)
+        {
+            this.hits++;
+            return entry;
+        }
+        PawnStructure.evaluate(white_pawns, black_pawns, entry);
+        entry.key = pawn_key;
+        entry.is_filled = true;
+        return entry;
+    }
+
+    public int getCapacity()
+    {
+        return this.entries.length;
+    }
+
+    public void clear()
+    {
+        for(final Entry entry : this.entries)
+            entry.is_filled = false;
+        this.probes = 0;
+        this.hits = 0;
+    }
+
+    public long getProbes()
+    {
+        return this.probes;
+    }
+
+    public long getHits()
+    {
+        return this.hits;
+    }
+
+    public double getHitRate()
+    {
+        return this.probes == 0 ? 0.0 : this.hits / (double) this.probes;
+    }
+
+    public static final class Entry
+    {
+        private long key;
+        private boolean is_filled;
+        int middlegame_score;
+        int endgame_score;
+        long passed_pawns;
+
+        private Entry()
+        {
+        }
+
+        //From White's point of view
+        public int getMiddlegameScore()
+        {
+            return this.middlegame_score;
+        }
+
+        public int getEndgameScore()
+        {
+            return this.endgame_score;
+        }
+
+        //Passed pawns of both sides; intersect with a side's pawns to get its own
+        public long getPassedPawns()
+        {
+            return this.passed_pawns;
+        }
+    }
+}
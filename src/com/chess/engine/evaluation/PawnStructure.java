@@ -0,0 +1,154 @@
+package com.chess.engine.evaluation;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.BoardUtils;
+
+/**
+ * Pawn structure terms that depend on nothing but the pawns: doubled, isolated, backward and
+ * passed pawns. Scored from White's point of view, for the middlegame and the endgame, and
+ * written into a PawnHashTable entry so they are only worked out once per pawn structure.
+ */
+final class PawnStructure
+{
+    private static final int WHITE = Alliance.WHITE.ordinal();
+    private static final int BLACK = Alliance.BLACK.ordinal();
+
+    private static final int DOUBLED_MIDDLEGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDDLEGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    private static final int BACKWARD_MIDDLEGAME = -8;
+    private static final int BACKWARD_ENDGAME = -10;
+    //By ranks advanced from the pawn's own back rank
+    private static final int[] PASSED_MIDDLEGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    private static final long[] FILE_MASKS = initFileMasks();
+    private static final long[] ADJACENT_FILE_MASKS = initAdjacentFileMasks();
+    //Tiles strictly ahead of a pawn of each colour on its own file, and on its own and both neighbouring files
+    private static final long[][] FRONT_SPANS = initSpans(false);
+    private static final long[][] PASSED_SPANS = initSpans(true);
+
+    private PawnStructure()
+    {
+        throw new RuntimeException("PawnStructure class cannot be instantiated.");
+    }
+
+    private static long[] initFileMasks()
+    {
+        final long[] masks = new long[BoardUtils.NUM_FILES];
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+            masks[i % BoardUtils.NUM_FILES] |= BitBoardUtils.squareMask(i);
+        return masks;
+    }
+
+    private static long[] initAdjacentFileMasks()
+    {
+        final long[] masks = new long[BoardUtils.NUM_FILES];
+        for(int file=0; file<BoardUtils.NUM_FILES; file++)
+        {
+            if(file > 0)                        masks[file] |= FILE_MASKS[file - 1];
+            if(file < BoardUtils.NUM_FILES - 1) masks[file] |= FILE_MASKS[file + 1];
+        }
+        return masks;
+    }
+
+    private static long[][] initSpans(final boolean with_adjacent_files)
+    {
+        final long[][] spans = new long[2][BoardUtils.NUM_TILES];
+        for(int i=0; i<BoardUtils.NUM_TILES; i++)
+        {
+            final int file = i % BoardUtils.NUM_FILES;
+            final long files = with_adjacent_files ? FILE_MASKS[file] | ADJACENT_FILE_MASKS[file] : FILE_MASKS[file];
+            //Rows before the pawn's are White's way forward, rows after it Black's
+            spans[WHITE][i] = files & (BitBoardUtils.squareMask(i - file) - 1);
+            spans[BLACK][i] = files & ~((BitBoardUtils.squareMask(i - file) << BoardUtils.NUM_FILES) - 1);
+        }
+        return spans;
+    }
+
+    static long getFileMask(final int file)
+    {
+        return FILE_MASKS[file];
+    }
+
+    static long getAdjacentFileMask(final int file)
+    {
+        return ADJACENT_FILE_MASKS[file];
+    }
+
+    static void evaluate(final long white_pawns, final long black_pawns, final PawnHashTable.Entry entry)
+    {
+        int middlegame_score = 0;
+        int endgame_score = 0;
+        long passed_pawns = BitBoardUtils.EMPTY;
+        for(int side=WHITE; side<=BLACK; side++)
+        {
+            final long own = side == WHITE ? white_pawns : black_pawns;
+            final long enemy = side == WHITE ? black_pawns : white_pawns;
+            final long enemy_attacks = side == WHITE ? blackPawnAttacks(black_pawns) : whitePawnAttacks(white_pawns);
+            final int sign = side == WHITE ? 1 : -1;
+            for(long pawns = own; pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns))
+            {
+                final int square = BitBoardUtils.firstSquare(pawns);
+                final int file = square % BoardUtils.NUM_FILES;
+                final int row = square / BoardUtils.NUM_FILES;
+                final int advanced = side == WHITE ? BoardUtils.NUM_FILES - 1 - row : row;
+
+                //Count a doubled pawn once, at the rearmost pawn of the file
+                if((own & FRONT_SPANS[side][square]) != 0)
+                {
+                    middlegame_score += sign * DOUBLED_MIDDLEGAME;
+                    endgame_score += sign * DOUBLED_ENDGAME;
+                }
+                if((own & ADJACENT_FILE_MASKS[file]) == 0)
+                {
+                    middlegame_score += sign * ISOLATED_MIDDLEGAME;
+                    endgame_score += sign * ISOLATED_ENDGAME;
+                }
+                else if(isBackward(side, square, own, enemy_attacks))
+                {
+                    middlegame_score += sign * BACKWARD_MIDDLEGAME;
+                    endgame_score += sign * BACKWARD_ENDGAME;
+                }
+                if((enemy & PASSED_SPANS[side][square]) == 0 && (own & FRONT_SPANS[side][square]) == 0)
+                {
+                    passed_pawns |= BitBoardUtils.squareMask(square);
+                    middlegame_score += sign * PASSED_MIDDLEGAME[advanced];
+                    endgame_score += sign * PASSED_ENDGAME[advanced];
+                }
+            }
+        }
+        entry.middlegame_score = middlegame_score;
+        entry.endgame_score = endgame_score;
+        entry.passed_pawns = passed_pawns;
+    }
+
+    //No friendly pawn on a neighbouring file level with or behind it, and its stop tile covered by an enemy pawn
+    private static boolean isBackward(final int side, final int square, final long own, final long enemy_attacks)
+    {
+        final int file = square % BoardUtils.NUM_FILES;
+        final int other_side = side ^ 1;
+        final long supporters = ADJACENT_FILE_MASKS[file] & (PASSED_SPANS[other_side][square] | rowMask(square));
+        if((own & supporters) != 0)
+            return false;
+        final int stop_square = side == WHITE ? square - BoardUtils.NUM_FILES : square + BoardUtils.NUM_FILES;
+        return BitBoardUtils.isSet(enemy_attacks, stop_square);
+    }
+
+    private static long rowMask(final int square)
+    {
+        return 0xFFL << (square - square % BoardUtils.NUM_FILES);
+    }
+
+    static long whitePawnAttacks(final long white_pawns)
+    {
+        return ((white_pawns & ~BitBoardUtils.FIRST_FILE_MASK) >>> 9) | ((white_pawns & ~BitBoardUtils.EIGHTH_FILE_MASK) >>> 7);
+    }
+
+    static long blackPawnAttacks(final long black_pawns)
+    {
+        return ((black_pawns & ~BitBoardUtils.FIRST_FILE_MASK) << 7) | ((black_pawns & ~BitBoardUtils.EIGHTH_FILE_MASK) << 9);
+    }
+}
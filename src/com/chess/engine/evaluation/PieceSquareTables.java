@@ -0,0 +1,161 @@
+package com.chess.engine.evaluation;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Material plus piece-square value of every piece on every tile, once for the middlegame and
+ * once for the endgame, precomputed into one table per piece index. Values are signed from
+ * White's point of view, so a position's score is just the sum over its pieces and a move
+ * only has to subtract what it removes and add what it places, like the Zobrist key.
+ *
+ * The tables are written from White's side with a8 first, the same order as tile coordinates;
+ * Black reads them mirrored top to bottom.
+ */
+public final class PieceSquareTables
+{
+    //Game phase weight of each piece type; all of them on the board add up to MAX_PHASE
+    public static final int MAX_PHASE = 24;
+    private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+
+    private static final int[] MIDDLEGAME_VALUES = {100, 320, 330, 500, 900, 0};
+    private static final int[] ENDGAME_VALUES = {120, 300, 320, 530, 950, 0};
+
+    private static final int[] PAWN_MIDDLEGAME = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+        50,  50,  50,  50,  50,  50,  50,  50,
+        10,  10,  20,  30,  30,  20,  10,  10,
+         5,   5,  10,  25,  25,  10,   5,   5,
+         0,   0,   0,  20,  20,   0,   0,   0,
+         5,  -5, -10,   0,   0, -10,  -5,   5,
+         5,  10,  10, -20, -20,  10,  10,   5,
+         0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    //Passed or not, a pawn is worth more the closer it gets to promoting once the pieces are off
+    private static final int[] PAWN_ENDGAME = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+        80,  80,  80,  80,  80,  80,  80,  80,
+        50,  50,  50,  50,  50,  50,  50,  50,
+        30,  30,  30,  30,  30,  30,  30,  30,
+        15,  15,  15,  15,  15,  15,  15,  15,
+         5,   5,   5,   5,   5,   5,   5,   5,
+         0,   0,   0,   0,   0,   0,   0,   0,
+         0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] KNIGHT = {
+       -50, -40, -30, -30, -30, -30, -40, -50,
+       -40, -20,   0,   0,   0,   0, -20, -40,
+       -30,   0,  10,  15,  15,  10,   0, -30,
+       -30,   5,  15,  20,  20,  15,   5, -30,
+       -30,   0,  15,  20,  20,  15,   0, -30,
+       -30,   5,  10,  15,  15,  10,   5, -30,
+       -40, -20,   0,   5,   5,   0, -20, -40,
+       -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP = {
+       -20, -10, -10, -10, -10, -10, -10, -20,
+       -10,   0,   0,   0,   0,   0,   0, -10,
+       -10,   0,   5,  10,  10,   5,   0, -10,
+       -10,   5,   5,  10,  10,   5,   5, -10,
+       -10,   0,  10,  10,  10,  10,   0, -10,
+       -10,  10,  10,  10,  10,  10,  10, -10,
+       -10,   5,   0,   0,   0,   0,   5, -10,
+       -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] ROOK = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+         5,  10,  10,  10,  10,  10,  10,   5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+         0,   0,   0,   5,   5,   0,   0,   0
+    };
+
+    private static final int[] QUEEN = {
+       -20, -10, -10,  -5,  -5, -10, -10, -20,
+       -10,   0,   0,   0,   0,   0,   0, -10,
+       -10,   0,   5,   5,   5,   5,   0, -10,
+        -5,   0,   5,   5,   5,   5,   0,  -5,
+         0,   0,   5,   5,   5,   5,   0,  -5,
+       -10,   5,   5,   5,   5,   5,   0, -10,
+       -10,   0,   5,   0,   0,   0,   0, -10,
+       -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+
+    private static final int[] KING_MIDDLEGAME = {
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -30, -40, -40, -50, -50, -40, -40, -30,
+       -20, -30, -30, -40, -40, -30, -30, -20,
+       -10, -20, -20, -20, -20, -20, -20, -10,
+        20,  20,   0,   0,   0,   0,  20,  20,
+        20,  30,  10,   0,   0,  10,  30,  20
+    };
+
+    private static final int[] KING_ENDGAME = {
+       -50, -40, -30, -20, -20, -30, -40, -50,
+       -30, -20, -10,   0,   0, -10, -20, -30,
+       -30, -10,  20,  30,  30,  20, -10, -30,
+       -30, -10,  30,  40,  40,  30, -10, -30,
+       -30, -10,  30,  40,  40,  30, -10, -30,
+       -30, -10,  20,  30,  30,  20, -10, -30,
+       -30, -30,   0,   0,   0,   0, -30, -30,
+       -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    private static final int[][] MIDDLEGAME_TABLES = {PAWN_MIDDLEGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_MIDDLEGAME};
+    private static final int[][] ENDGAME_TABLES = {PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME};
+
+    private static final int[][] MIDDLEGAME_SCORES = initScores(MIDDLEGAME_VALUES, MIDDLEGAME_TABLES);
+    private static final int[][] ENDGAME_SCORES = initScores(ENDGAME_VALUES, ENDGAME_TABLES);
+
+    private PieceSquareTables()
+    {
+        throw new RuntimeException("PieceSquareTables class cannot be instantiated.");
+    }
+
+    private static int[][] initScores(final int[] values, final int[][] tables)
+    {
+        final int[][] scores = new int[BitBoardUtils.NUM_PIECE_BITBOARDS][BoardUtils.NUM_TILES];
+        for(final Alliance alliance : Alliance.values())
+        {
+            for(final PieceType piece_type : PieceType.values())
+            {
+                final int type = piece_type.ordinal();
+                final int[] piece_scores = scores[BitBoardUtils.pieceIndex(alliance, piece_type)];
+                for(int i=0; i<BoardUtils.NUM_TILES; i++)
+                {
+                    //Flipping the row bits mirrors a8 onto a1
+                    final int table_index = alliance.isWhite() ? i : i ^ 56;
+                    final int score = values[type] + tables[type][table_index];
+                    piece_scores[i] = alliance.isWhite() ? score : -score;
+                }
+            }
+        }
+        return scores;
+    }
+
+    public static int getMiddlegameScore(final int piece_index, final int tile_coordinate)
+    {
+        return MIDDLEGAME_SCORES[piece_index][tile_coordinate];
+    }
+
+    public static int getEndgameScore(final int piece_index, final int tile_coordinate)
+    {
+        return ENDGAME_SCORES[piece_index][tile_coordinate];
+    }
+
+    public static int getPhaseWeight(final int piece_index)
+    {
+        return PHASE_WEIGHTS[piece_index % BitBoardUtils.NUM_PIECE_TYPES];
+    }
+}
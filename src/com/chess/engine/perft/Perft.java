@@ -0,0 +1,231 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.IntMoveList;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth, the standard check that a move
+ * generator is both correct and fast. Root moves come from Board/Player.makeMove and are split
+ * across a ForkJoinPool; each subtree is then walked either on a MutableBoard (the search's
+ * representation) or, when use_mutable_board is off, on immutable Boards all the way down.
+ */
+public final class Perft
+{
+    private final ForkJoinPool pool;
+    private final PerftHashTable hash_table;
+    private final boolean use_mutable_board;
+
+    //hash_size_mb of 0 turns the shared perft hash off
+    public Perft(final int threads, final int hash_size_mb, final boolean use_mutable_board)
+    {
+        this.pool = new ForkJoinPool(threads);
+        this.hash_table = hash_size_mb > 0 ? new PerftHashTable(hash_size_mb) : null;
+        this.use_mutable_board = use_mutable_board;
+    }
+
+    public void shutdown()
+    {
+        this.pool.shutdown();
+    }
+
+    public long perft(final Board board, final int depth)
+    {
+        if(depth == 0)
+            return 1L;
+        long nodes = 0;
+        for(final long root_nodes : divide(board, depth).values())
+            nodes += root_nodes;
+        return nodes;
+    }
+
+    //Node count below every legal root move, in move generation order
+    public Map<Move, Long> divide(final Board board, final int depth)
+    {
+        final List<Move> root_moves = new ArrayList<>(board.getCurrentPlayer().getLegalMoves());
+        final List<Callable<Long>> tasks = new ArrayList<>();
+        for(final Move move : root_moves)
+        {
+            tasks.add(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+                    if(use_mutable_board)
+                        return countNodes(new MutableBoard(transition.getTransitionBoard()), depth - 1);
+                    return countNodes(transition.getTransitionBoard(), depth - 1);
+                }
+            });
+        }
+
+        final Map<Move, Long> divide = new LinkedHashMap<>();
+        try
+        {
+            final List<Future<Long>> results = this.pool.invokeAll(tasks);
+            for(int i=0; i<root_moves.size(); i++)
+                divide.put(root_moves.get(i), results.get(i).get());
+        }
+        catch(final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Perft interrupted", e);
+        }
+        catch(final ExecutionException e)
+        {
+            throw new RuntimeException("Perft worker failed", e.getCause());
+        }
+        return divide;
+    }
+
+    private long countNodes(final MutableBoard board, final int depth)
+    {
+        final IntMoveList[] move_lists = new IntMoveList[Math.max(depth, 1)];
+        for(int i=0; i<move_lists.length; i++)
+            move_lists[i] = new IntMoveList();
+        return countNodes(board, depth, move_lists);
+    }
+
+    private long countNodes(final MutableBoard board, final int depth, final IntMoveList[] move_lists)
+    {
+        if(depth == 0)
+            return 1L;
+        final IntMoveList moves = move_lists[depth - 1];
+        moves.clear();
+        board.generateLegalMoves(moves);
+        //Bulk counting: the legal moves of the last ply are the leaves
+        if(depth == 1)
+            return moves.size();
+
+        final long hashed = probe(board.getZobristKey(), depth);
+        if(hashed != PerftHashTable.MISS)
+            return hashed;
+
+        long nodes = 0;
+        for(int i=0; i<moves.size(); i++)
+        {
+            board.makeMove(moves.get(i));
+            nodes += countNodes(board, depth - 1, move_lists);
+            board.unmakeMove();
+        }
+        store(board.getZobristKey(), depth, nodes);
+        return nodes;
+    }
+
+    private long countNodes(final Board board, final int depth)
+    {
+        if(depth == 0)
+            return 1L;
+        if(depth == 1)
+            return board.getCurrentPlayer().getLegalMoves().size();
+
+        final long hashed = probe(board.getZobristKey(), depth);
+        if(hashed != PerftHashTable.MISS)
+            return hashed;
+
+        long nodes = 0;
+        for(final Move move : board.getCurrentPlayer().getLegalMoves())
+        {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone())
+                nodes += countNodes(transition.getTransitionBoard(), depth - 1);
+        }
+        store(board.getZobristKey(), depth, nodes);
+        return nodes;
+    }
+
+    private long probe(final long zobrist_key, final int depth)
+    {
+        return this.hash_table == null ? PerftHashTable.MISS : this.hash_table.probe(zobrist_key, depth);
+    }
+
+    private void store(final long zobrist_key, final int depth, final long nodes)
+    {
+        if(this.hash_table != null)
+            this.hash_table.store(zobrist_key, depth, nodes);
+    }
+
+    /**
+     * Usage:
+     *   Perft suite [max_depth] [threads] [hash_mb] [boards]
+     *   Perft divide depth "fen" [threads] [hash_mb] [boards]
+     * "boards" walks immutable Boards instead of a MutableBoard below the root.
+     */
+    public static void main(final String[] args)
+    {
+        final boolean divide_mode = args.length > 0 && args[0].equals("divide");
+        final int first_option = divide_mode ? 3 : 2;
+        final int threads = args.length > first_option ? Integer.parseInt(args[first_option]) :
+                                                         Runtime.getRuntime().availableProcessors();
+        final int hash_size_mb = args.length > first_option + 1 ? Integer.parseInt(args[first_option + 1]) : 0;
+        final boolean use_mutable_board = args.length <= first_option + 2 || !args[first_option + 2].equals("boards");
+
+        final Perft perft = new Perft(threads, hash_size_mb, use_mutable_board);
+        try
+        {
+            if(divide_mode)
+                runDivide(perft, FenUtilities.createGameFromFEN(args[2]), Integer.parseInt(args[1]));
+            else
+                runSuite(perft, args.length > 1 ? Integer.parseInt(args[1]) : 5);
+        }
+        finally
+        {
+            perft.shutdown();
+        }
+    }
+
+    private static void runDivide(final Perft perft, final Board board, final int depth)
+    {
+        final long start_time = System.nanoTime();
+        final Map<Move, Long> divide = perft.divide(board, depth);
+        final long elapsed_time = System.nanoTime() - start_time;
+        long nodes = 0;
+        for(final Map.Entry<Move, Long> entry : divide.entrySet())
+        {
+            System.out.println(MoveEncoding.toString(entry.getKey().toIntMove()) + ": " + entry.getValue());
+            nodes += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Moves: " + divide.size());
+        System.out.println("Nodes: " + nodes);
+        System.out.println(formatSpeed(nodes, elapsed_time));
+    }
+
+    private static void runSuite(final Perft perft, final int max_depth)
+    {
+        boolean all_passed = true;
+        for(final PerftPosition position : PerftPosition.values())
+        {
+            final Board board = position.createBoard();
+            for(int depth=1; depth<=Math.min(max_depth, position.getMaxDepth()); depth++)
+            {
+                final long start_time = System.nanoTime();
+                final long nodes = perft.perft(board, depth);
+                final long elapsed_time = System.nanoTime() - start_time;
+                final boolean passed = nodes == position.getNodeCount(depth);
+                all_passed &= passed;
+                System.out.println(String.format("%-10s depth %d: %,14d %s  %s", position, depth, nodes,
+                                                 passed ? "OK" : "FAILED (expected " + position.getNodeCount(depth) + ")",
+                                                 formatSpeed(nodes, elapsed_time)));
+            }
+        }
+        System.out.println(all_passed ? "All positions passed." : "Some positions FAILED.");
+    }
+
+    private static String formatSpeed(final long nodes, final long elapsed_nanos)
+    {
+        final double seconds = Math.max(elapsed_nanos, 1L) / 1e9;
+        return String.format("%.3fs, %,.0f nodes/s", seconds, nodes / seconds);
+    }
+}
@@ -0,0 +1,45 @@
+package com.chess.engine.perft;
+
+/**
+ * Node counts of already-counted subtrees, keyed by Zobrist key and remaining depth, shared by
+ * all perft worker threads without locking. Each slot stores the key XOR-ed with its count, so
+ * a slot half-written by another thread fails verification and reads as a miss instead of
+ * returning a wrong count.
+ */
+public final class PerftHashTable
+{
+    public static final long MISS = -1L;
+
+    //Spreads the remaining depth over the key so one position at two depths gets two entries
+    private static final long DEPTH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] checks;
+    private final long[] counts;
+    private final int index_mask;
+
+    public PerftHashTable(final int size_mb)
+    {
+        final long requested_entries = Math.max(1L, (long) size_mb * 1024 * 1024 / BYTES_PER_ENTRY);
+        final int entries = Integer.highestOneBit((int) Math.min(requested_entries, 1 << 30));
+        this.checks = new long[entries];
+        this.counts = new long[entries];
+        this.index_mask = entries - 1;
+    }
+
+    public long probe(final long zobrist_key, final int depth)
+    {
+        final long hash = zobrist_key ^ (depth * DEPTH_MULTIPLIER);
+        final int index = (int) hash & this.index_mask;
+        final long count = this.counts[index];
+        return (this.checks[index] ^ count) == hash ? count : MISS;
+    }
+
+    public void store(final long zobrist_key, final int depth, final long count)
+    {
+        final long hash = zobrist_key ^ (depth * DEPTH_MULTIPLIER);
+        final int index = (int) hash & this.index_mask;
+        this.counts[index] = count;
+        this.checks[index] = hash ^ count;
+    }
+}
@@ -1,9 +1,11 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.PrecomputedAttacks;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
@@ -14,7 +16,8 @@ import static com.chess.engine.board.Move.*;
 
 public class Pawn extends Piece
 {
-    public static final int[] CANDIDATE_MOVE_COORDINATES = {7, 8, 9, 16};
+    //Most valuable first, so callers that take the first match promote to a queen
+    private static final PieceType[] PROMOTION_TYPES = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
 
     public Pawn(int piece_Position, Alliance piece_Alliance)
     {
@@ -27,62 +30,65 @@ public class Pawn extends Piece
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(Board board)
+    public Collection<Move> calculateLegalMoves(final Board board)
     {
         final List<Move> legal_moves = new ArrayList<>();
-        for(int candidate_offset : CANDIDATE_MOVE_COORDINATES)
+        final long empty_tiles = ~board.getAllOccupancy();
+
+        //1 Square pawn move
+        final long push = PrecomputedAttacks.getPawnPushes(this.piece_alliance, this.piece_position) & empty_tiles;
+        if(push != 0)
         {
-            int candidate_destination_coordinate = this.piece_position + this.piece_alliance.getDirection()*candidate_offset;
+            final int push_destination = BitBoardUtils.firstSquare(push);
+            if(isPromotionSquare(push_destination))
+                addPromotions(board, push_destination, null, legal_moves);
+            else
+                legal_moves.add(new NormalMove(board, this, push_destination));
+
+            //2 Square pawn move, the square in between is known to be empty here
+            final long jump = PrecomputedAttacks.getPawnJumps(this.piece_alliance, this.piece_position) & empty_tiles;
+            if(this.isFirstMove() && jump != 0)
+                legal_moves.add(new PawnJumpMove(board, this, BitBoardUtils.firstSquare(jump)));
+        }
 
-            if(!BoardUtils.isValidTileCoordinate(candidate_destination_coordinate))  continue;;
+        //CaptureMove
+        final long enemy_tiles = board.getAllOccupancy() & ~board.getOccupancy(this.piece_alliance);
+        for(long captures = PrecomputedAttacks.getPawnAttacks(this.piece_alliance, this.piece_position) & enemy_tiles;
+            captures != 0; captures = BitBoardUtils.clearFirstSquare(captures))
+        {
+            final int candidate_destination_coordinate = BitBoardUtils.firstSquare(captures);
+            final Piece piece_on_destination = board.getPiece(candidate_destination_coordinate);
+            if(isPromotionSquare(candidate_destination_coordinate))
+                addPromotions(board, candidate_destination_coordinate, piece_on_destination, legal_moves);
+            else
+                legal_moves.add(new CaptureMove(board, this, candidate_destination_coordinate, piece_on_destination));
+        }
 
-            //1 Square pawn move
-            if(candidate_offset == 8 && !board.getTile(candidate_destination_coordinate).isOccupied())
-                //TODO move work to do here (pawn promotion) !!
-                legal_moves.add(new NormalMove(board, this, candidate_destination_coordinate));
-            //2 Square pawn move
-            else if(candidate_offset == 16 && this.isFirstMove() &&
-                    ((BoardUtils.SECOND_RANK[this.piece_position] && this.getPieceAlliance().isWhite()) ||
-                        BoardUtils.SEVENTH_RANK[this.piece_position] && this.getPieceAlliance().isBlack()))
-            {
-                //pawn jump;
-                final int middle_square = this.piece_position + this.getPieceAlliance().getDirection()*8;
-                if(!board.getTile(middle_square).isOccupied() && !board.getTile(candidate_destination_coordinate).isOccupied())
-                    legal_moves.add(new PawnJumpMove(board, this, candidate_destination_coordinate));
-            }
-            else if(candidate_offset == 7   &&
-                    !((BoardUtils.FIRST_FILE[this.piece_position] && this.piece_alliance.isBlack())   ||
-                     (BoardUtils.EIGHTH_FILE[this.piece_position] && this.piece_alliance.isWhite()) )   )
-            {
-                //CaptureMove
-                if(board.getTile(candidate_destination_coordinate).isOccupied())
-                {
-                    final Piece piece_on_destination = board.getTile(candidate_destination_coordinate).getPiece();
-                    if(piece_on_destination.getPieceAlliance() != this.piece_alliance)
-                        //TODO replace logic to attack into pawn promotion
-                        legal_moves.add(new CaptureMove(board, this, candidate_destination_coordinate, piece_on_destination));
-                }
-            }
-            else if(candidate_offset == 9   &&
-                    !((BoardUtils.FIRST_FILE[this.piece_position] && this.piece_alliance.isWhite())   ||
-                            (BoardUtils.EIGHTH_FILE[this.piece_position] && this.piece_alliance.isBlack()) )   )
-            {
-                //CaptureMove
-                if(board.getTile(candidate_destination_coordinate).isOccupied())
-                {
-                    final Piece piece_on_destination = board.getTile(candidate_destination_coordinate).getPiece();
-                    if(piece_on_destination.getPieceAlliance() != this.piece_alliance)
-                        //TODO replace logic to attack into pawn promotion
-                        legal_moves.add(new CaptureMove(board, this, candidate_destination_coordinate, piece_on_destination));
-                }
-            }
+        //En passant, onto the tile the opponent's pawn jumped over
+        final Pawn en_passant_pawn = board.getEnPassantPawn();
+        if(en_passant_pawn != null && en_passant_pawn.getPieceAlliance() != this.piece_alliance)
+        {
+            final int en_passant_destination = en_passant_pawn.getPiecePosition() + this.piece_alliance.getDirection() * BoardUtils.NUM_FILES;
+            if(BitBoardUtils.isSet(PrecomputedAttacks.getPawnAttacks(this.piece_alliance, this.piece_position), en_passant_destination))
+                legal_moves.add(new EnPassantMove(board, this, en_passant_destination, en_passant_pawn));
         }
         return ImmutableList.copyOf(legal_moves);
     }
 
+    private boolean isPromotionSquare(final int tile_coordinate)
+    {
+        return this.piece_alliance.isWhite() ? BoardUtils.EIGHTH_RANK[tile_coordinate] : BoardUtils.FIRST_RANK[tile_coordinate];
+    }
+
+    private void addPromotions(final Board board, final int destination_coordinate, final Piece attacked_piece, final List<Move> legal_moves)
+    {
+        for(final PieceType promotion_type : PROMOTION_TYPES)
+            legal_moves.add(new PawnPromotion(board, this, destination_coordinate, attacked_piece, promotion_type));
+    }
+
     @Override
     public Pawn movePiece(Move move) {
-        return new Pawn(move.getDestinationCoordinate(), move.getPiece().getPieceAlliance());
+        return (Pawn) createPiece(PieceType.PAWN, move.getPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
     @Override
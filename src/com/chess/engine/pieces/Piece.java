@@ -1,10 +1,15 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public abstract class Piece
 {
@@ -13,6 +18,7 @@ public abstract class Piece
     protected final Alliance piece_alliance;
     protected final boolean is_first_move;
     private final int cached_hashcode;
+    private final int cache_index;
 
     Piece(final int piece_Position, final Alliance piece_Alliance, final PieceType piece_type, final boolean is_first_move)
     {
@@ -21,6 +27,7 @@ public abstract class Piece
         this.piece_type = piece_type;
         this.is_first_move = is_first_move;
         this.cached_hashcode = computeHashCode();
+        this.cache_index = getCacheIndex(piece_type, piece_Alliance, piece_Position, is_first_move);
     }
 
     private int computeHashCode() {
@@ -35,6 +42,75 @@ public abstract class Piece
 
     public abstract Piece movePiece(Move move);
 
+    //Every distinct (type, alliance, first move, position) piece, so moves and boards share instances
+    public static final int NUM_CACHED_PIECES = BitBoardUtils.NUM_PIECE_BITBOARDS * 2 * BoardUtils.NUM_TILES;
+
+    private static final class PieceCache
+    {
+        private static final Piece[] PIECES = initPieceCache();
+    }
+
+    private static Piece[] initPieceCache()
+    {
+        final Piece[] pieces = new Piece[NUM_CACHED_PIECES];
+        for(final PieceType piece_type : PieceType.values())
+            for(final Alliance alliance : Alliance.values())
+                for(int i=0; i<BoardUtils.NUM_TILES; i++)
+                {
+                    pieces[getCacheIndex(piece_type, alliance, i, true)] = constructPiece(piece_type, alliance, i, true);
+                    pieces[getCacheIndex(piece_type, alliance, i, false)] = constructPiece(piece_type, alliance, i, false);
+                }
+        return pieces;
+    }
+
+    public static int getCacheIndex(final PieceType piece_type, final Alliance piece_alliance,
+                                    final int piece_position, final boolean is_first_move)
+    {
+        return ((BitBoardUtils.pieceIndex(piece_alliance, piece_type) << 1) + (is_first_move ? 1 : 0)) * BoardUtils.NUM_TILES + piece_position;
+    }
+
+    public final int getCacheIndex()
+    {
+        return this.cache_index;
+    }
+
+    //Served from the flyweight cache, never allocates
+    public static Piece createPiece(final PieceType piece_type, final Alliance piece_alliance,
+                                   final int piece_position, final boolean is_first_move)
+    {
+        return PieceCache.PIECES[getCacheIndex(piece_type, piece_alliance, piece_position, is_first_move)];
+    }
+
+    private static Piece constructPiece(final PieceType piece_type, final Alliance piece_alliance,
+                                        final int piece_position, final boolean is_first_move)
+    {
+        switch(piece_type)
+        {
+            case PAWN:      return new Pawn(piece_position, piece_alliance, is_first_move);
+            case KNIGHT:    return new Knight(piece_position, piece_alliance, is_first_move);
+            case BISHOP:    return new Bishop(piece_position, piece_alliance, is_first_move);
+            case ROOK:      return new Rook(piece_position, piece_alliance, is_first_move);
+            case QUEEN:     return new Queen(piece_position, piece_alliance, is_first_move);
+            default:        return new King(piece_position, piece_alliance, is_first_move);
+        }
+    }
+
+    //Turns a bitboard of destination tiles (own pieces already masked out) into normal and capture moves
+    protected final Collection<Move> createMoves(final Board board, final long destinations)
+    {
+        final List<Move> legal_moves = new ArrayList<>(BitBoardUtils.bitCount(destinations));
+        for(long remaining = destinations; remaining != 0; remaining = BitBoardUtils.clearFirstSquare(remaining))
+        {
+            final int candidate_destination_coordinate = BitBoardUtils.firstSquare(remaining);
+            final Piece piece_at_destination = board.getPiece(candidate_destination_coordinate);
+            if(piece_at_destination == null)
+                legal_moves.add(new Move.NormalMove(board, this, candidate_destination_coordinate));
+            else
+                legal_moves.add(new Move.CaptureMove(board, this, candidate_destination_coordinate, piece_at_destination));
+        }
+        return ImmutableList.copyOf(legal_moves);
+    }
+
     @Override
     public boolean equals(final Object other)
     {
@@ -2,19 +2,13 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitBoards;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public class Queen extends Piece
 {
-    private static final int[] CANDIDATE_MOVE_VECTOR_COORDINATE = {-9, -8, -7, -1, 1, 7, 8, 9};
-
     public Queen(int piece_Position, Alliance piece_Alliance)
     {
         super(piece_Position, piece_Alliance, PieceType.QUEEN, true);
@@ -26,53 +20,15 @@ public class Queen extends Piece
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(Board board)
+    public Collection<Move> calculateLegalMoves(final Board board)
     {
-        final List<Move> legal_moves = new ArrayList<>();
-
-        for(int candidate_offset : CANDIDATE_MOVE_VECTOR_COORDINATE)
-        {
-            int destination_coordinate = this.piece_position;
-            while(BoardUtils.isValidTileCoordinate(destination_coordinate))
-            {
-                if(isFirstFileExclusion(this.piece_position, candidate_offset) ||
-                        isEighthFileExclusion(this.piece_position, candidate_offset))
-                    break;
-
-                destination_coordinate += candidate_offset;
-                if(BoardUtils.isValidTileCoordinate(destination_coordinate))
-                {
-                    final Tile candidate_destination_tile = board.getTile(destination_coordinate);
-                    if(!candidate_destination_tile.isOccupied())
-                        legal_moves.add(new Move.NormalMove(board, this, destination_coordinate));
-                    else
-                    {
-                        final Piece piece_on_destination = candidate_destination_tile.getPiece();
-                        final Alliance alliance_of_piece_on_destination = piece_on_destination.getPieceAlliance();
-
-                        if(alliance_of_piece_on_destination != this.piece_alliance)
-                            legal_moves.add(new Move.CaptureMove(board, this, destination_coordinate, piece_on_destination));
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legal_moves);
+        final long attacks = MagicBitBoards.getQueenAttacks(this.piece_position, board.getAllOccupancy());
+        return createMoves(board, attacks & ~board.getOccupancy(this.piece_alliance));
     }
 
     @Override
     public Queen movePiece(Move move) {
-        return new Queen(move.getDestinationCoordinate(), move.getPiece().getPieceAlliance());
-    }
-
-    private static boolean isFirstFileExclusion(final int current_position, final int candidate_offset)
-    {
-        return BoardUtils.FIRST_FILE[current_position] && (candidate_offset == -1 || candidate_offset == -9 || candidate_offset == 7);
-    }
-
-    private static boolean isEighthFileExclusion(final int current_position, final int candidate_offset)
-    {
-        return BoardUtils.EIGHTH_FILE[current_position] && (current_position == 1 || candidate_offset == -7 || candidate_offset == 9);
+        return (Queen) createPiece(PieceType.QUEEN, move.getPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
     @Override
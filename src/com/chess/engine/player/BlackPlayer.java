@@ -14,13 +14,13 @@ import java.util.List;
 
 public class BlackPlayer extends Player
 {
-    public BlackPlayer(Board board, Collection<Move> white_standard_legal_moves, Collection<Move> black_standard_legal_moves)
+    public BlackPlayer(Board board, Collection<Move> black_standard_legal_moves)
     {
-        super(board, black_standard_legal_moves, white_standard_legal_moves);
+        super(board, black_standard_legal_moves);
     }
 
     @Override
-    protected Collection<Move> calculateKingCastleMoves(final Collection<Move> legal_moves, final Collection<Move> opponent_legal_moves) {
+    protected Collection<Move> calculateKingCastleMoves() {
 
         final  List<Move> king_castle_moves = new ArrayList<>();
         if(this.player_king.isFirstMove() && !this.isInCheck())
@@ -29,8 +29,7 @@ public class BlackPlayer extends Player
             if(!this.board.getTile(5).isOccupied() &&
                     !this.board.getTile(6).isOccupied())   //Check for squares being occupied
             {
-                if(Player.calculateAttacksOnTile(5, opponent_legal_moves).isEmpty() &&
-                        Player.calculateAttacksOnTile(6, opponent_legal_moves).isEmpty())
+                if(!isTileAttacked(5) && !isTileAttacked(6))
                 //Check for checks on the transition squares
                 {
                     final Tile rook_tile = this.board.getTile(7);
@@ -48,10 +47,8 @@ public class BlackPlayer extends Player
                     !this.board.getTile(2).isOccupied() &&
                     !this.board.getTile(3).isOccupied())   //Check for squares being occupied
             {
-                if(Player.calculateAttacksOnTile(1, opponent_legal_moves).isEmpty() &&
-                        Player.calculateAttacksOnTile(2, opponent_legal_moves).isEmpty() &&
-                        Player.calculateAttacksOnTile(3, opponent_legal_moves).isEmpty())
-                //Check for checks on the transition squares
+                if(!isTileAttacked(2) && !isTileAttacked(3))
+                //Check for checks on the transition squares, the king never crosses 1
                 {
                     final Tile rook_tile = this.board.getTile(0);
                     if(rook_tile.isOccupied() && rook_tile.getPiece().isFirstMove() && rook_tile.getPiece().getPieceType().isRook())
@@ -0,0 +1,41 @@
+package com.chess.engine.player;
+
+/**
+ * Where the game stands for the player to move. DRAW covers the draws that follow from the
+ * position alone (insufficient material); draws by repetition or the fifty-move rule need the
+ * game's history, which a Board does not keep.
+ */
+public enum GameState {
+    ONGOING {
+        @Override
+        public boolean isGameOver() {
+            return false;
+        }
+    },
+    CHECK {
+        @Override
+        public boolean isGameOver() {
+            return false;
+        }
+    },
+    CHECKMATE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    },
+    STALEMATE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    },
+    DRAW {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+    };
+
+    public abstract boolean isGameOver();
+}
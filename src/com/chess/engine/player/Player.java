@@ -2,41 +2,39 @@ package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.IntMoveSet;
+import com.chess.engine.board.LegalMoveGenerator;
 import com.chess.engine.board.Move;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public abstract class Player
 {
     protected final Board board;
     protected final King player_king;
     protected final Collection<Move> legal_moves;
-    private boolean is_in_check;
+    private final boolean is_in_check;
+    private volatile IntMoveSet legal_move_set;
+    private volatile GameState game_state;
 
-    public Player(final Board game_board, final Collection<Move> self_legal_moves, final Collection<Move> opponent_legal_moves)
+    public Player(final Board game_board, final Collection<Move> self_legal_moves)
     {
         this.board = game_board;
         this.player_king = establishKing();
-        this.legal_moves = ImmutableList.copyOf(Iterables.concat(self_legal_moves,
-                                                calculateKingCastleMoves(self_legal_moves, opponent_legal_moves)));
-        this.is_in_check = !Player.calculateAttacksOnTile(this.player_king.getPiecePosition(), opponent_legal_moves).isEmpty();
+        //Check has to be known before castle moves are generated, as castling out of check is not allowed
+        final LegalMoveGenerator legal_move_generator = new LegalMoveGenerator(game_board, getAlliance());
+        this.is_in_check = legal_move_generator.isInCheck();
+        this.legal_moves = legal_move_generator.filterLegalMoves(Iterables.concat(self_legal_moves,
+                                                calculateKingCastleMoves()));
     }
 
-    protected static Collection<Move> calculateAttacksOnTile(int piecePosition, Collection<Move> opponent_legal_moves)
+    //Single bit test against the board's attack map
+    protected boolean isTileAttacked(final int tile_coordinate)
     {
-        final List<Move> moves_that_check = new ArrayList<>();
-        for(final Move move : opponent_legal_moves)
-        {
-            if(piecePosition == move.getDestinationCoordinate())
-                moves_that_check.add(move);
-        }
-        return ImmutableList.copyOf(moves_that_check);
+        return this.board.getAttackMap().isTileAttacked(tile_coordinate, getAlliance().opposite());
     }
 
     public King getPlayerKing() {
@@ -57,31 +55,56 @@ public abstract class Player
         throw new RuntimeException("No King Found! Not a valid board configuration");
     }
 
+    //Hash lookup on the move's encoding rather than a List.contains scan calling Move.equals on every element;
+    //the move must also have been made on this board, as execute() plays it on its own board
     public boolean isMoveLegal(Move move) {
-        return this.legal_moves.contains(move);
+        return move.getBoard() == this.board && getLegalMoveSet().contains(move.toIntMove()) &&
+               move.getPiece().getPieceAlliance() == getAlliance();
+    }
+
+    //Built on first use; racing threads would just build identical sets
+    private IntMoveSet getLegalMoveSet() {
+        IntMoveSet legal_move_set = this.legal_move_set;
+        if(legal_move_set == null)
+        {
+            legal_move_set = new IntMoveSet(this.legal_moves.size());
+            for(final Move move : this.legal_moves)
+                legal_move_set.add(move.toIntMove());
+            this.legal_move_set = legal_move_set;
+        }
+        return legal_move_set;
     }
 
     public boolean isInCheck() {
         return this.is_in_check;
     }
 
-    //TODO CHECKS CHECKMATE STALEMATE AND CASTLE
     public boolean isInCheckmate() {
-        return this.is_in_check && !hasEscapeMoves();
+        return getGameState() == GameState.CHECKMATE;
     }
 
     public boolean isInStalemate() {
-        return !this.is_in_check && !hasEscapeMoves();
+        return getGameState() == GameState.STALEMATE;
     }
 
-    private boolean hasEscapeMoves() {
-        for(final Move move : this.legal_moves)
+    //Classified once per player and cached, so redraws and repeated queries cost a field read
+    public GameState getGameState() {
+        GameState game_state = this.game_state;
+        if(game_state == null)
         {
-            final MoveTransition transition = makeMove(move);
-            if(transition.getMoveStatus().isDone())
-                return true;
+            game_state = calculateGameState();
+            this.game_state = game_state;
         }
-        return false;
+        return game_state;
+    }
+
+    //legal_moves only holds moves that do not leave the king in check, so no escape move means it is empty
+    private GameState calculateGameState() {
+        if(this.legal_moves.isEmpty())
+            return this.is_in_check ? GameState.CHECKMATE : GameState.STALEMATE;
+        if(this.board.hasInsufficientMaterial())
+            return GameState.DRAW;
+        return this.is_in_check ? GameState.CHECK : GameState.ONGOING;
     }
 
     public boolean isCastled() {
@@ -95,19 +118,11 @@ public abstract class Player
             return new MoveTransition(this.board, move, MoveStatus.ILLEGAL_MOVE);
         }
 
-        final Board transition_board = move.execute();
-        //ILLEGAL MOVE AS IT RESULTS IN A CHECK
-        final Collection<Move> king_attacks = Player.calculateAttacksOnTile(
-                                            transition_board.getCurrentPlayer().getOpponent().getPlayerKing().getPiecePosition(),
-                                            transition_board.getCurrentPlayer().getLegalMoves());
-        if(!king_attacks.isEmpty())
-            return new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
-
-        //LEGAL MOVE
-        return new MoveTransition(transition_board, move, MoveStatus.DONE);
+        //LEGAL MOVE, already checked against pins and checks when legal_moves was generated
+        return new MoveTransition(move.execute(), move, MoveStatus.DONE);
     }
 
-    protected abstract Collection<Move> calculateKingCastleMoves(Collection<Move> legal_moves, Collection<Move> opponent_legal_moves);
+    protected abstract Collection<Move> calculateKingCastleMoves();
     public abstract Collection<Piece> getActivePieces();
     public abstract Alliance getAlliance();
     public abstract Player getOpponent();
@@ -14,13 +14,13 @@ import java.util.List;
 
 public class WhitePlayer extends Player
 {
-    public WhitePlayer(Board board, Collection<Move> white_standard_legal_moves, Collection<Move> black_standard_legal_moves)
+    public WhitePlayer(Board board, Collection<Move> white_standard_legal_moves)
     {
-        super(board, white_standard_legal_moves, black_standard_legal_moves);
+        super(board, white_standard_legal_moves);
     }
 
     @Override
-    protected Collection<Move> calculateKingCastleMoves(final Collection<Move> legal_moves, final Collection<Move> opponent_legal_moves)
+    protected Collection<Move> calculateKingCastleMoves()
     {
         final  List<Move> king_castle_moves = new ArrayList<>();
         if(this.player_king.isFirstMove() && !this.isInCheck())
@@ -29,8 +29,7 @@ public class WhitePlayer extends Player
             if(!this.board.getTile(61).isOccupied() &&
                     !this.board.getTile(62).isOccupied())   //Check for squares being occupied
             {
-                if(Player.calculateAttacksOnTile(61, opponent_legal_moves).isEmpty() &&
-                    Player.calculateAttacksOnTile(62, opponent_legal_moves).isEmpty())
+                if(!isTileAttacked(61) && !isTileAttacked(62))
                     //Check for checks on the transition squares
                 {
                     final Tile rook_tile = this.board.getTile(63);
@@ -48,10 +47,8 @@ public class WhitePlayer extends Player
                     !this.board.getTile(58).isOccupied() &&
                     !this.board.getTile(59).isOccupied())   //Check for squares being occupied
             {
-                if(Player.calculateAttacksOnTile(57, opponent_legal_moves).isEmpty() &&
-                        Player.calculateAttacksOnTile(58, opponent_legal_moves).isEmpty() &&
-                        Player.calculateAttacksOnTile(59, opponent_legal_moves).isEmpty())
-                    //Check for checks on the transition squares
+                if(!isTileAttacked(58) && !isTileAttacked(59))
+                    //Check for checks on the transition squares, the king never crosses 57
                 {
                     final Tile rook_tile = this.board.getTile(56);
                     if(rook_tile.isOccupied() && rook_tile.getPiece().isFirstMove() && rook_tile.getPiece().getPieceType().isRook())
@@ -0,0 +1,278 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.evaluation.BoardEvaluator;
+import com.chess.engine.evaluation.Evaluator;
+import com.chess.engine.evaluation.PawnHashTable;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative-deepening negamax alpha-beta search. Depth 1, 2, 3... are searched in turn until
+ * the depth, time or node budget runs out, and the deepest fully searched iteration is
+ * returned. The budgets are checked inside the tree too, so an iteration that would run over
+ * is abandoned part way and its partial result thrown away.
+ *
+ * With more than one thread the search is a Lazy SMP one: helper threads run the same
+ * iterative deepening on their own boards, half of them one ply ahead, and the only thing
+ * they share with the main thread is the transposition table. Their entries cut off and order
+ * the main thread's tree; whichever thread completes the deepest iteration supplies the result.
+ */
+public class AlphaBeta implements MoveStrategy
+{
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+    public static final int DEFAULT_HASH_SIZE_MB = 64;
+
+    private final int max_depth;
+    private final long time_limit_millis;
+    private final long node_limit;
+    private final int threads;
+    private final TranspositionTable transposition_table;
+    //One per thread slot, main thread first
+    private final Evaluator[] evaluators;
+    private volatile SearchControl control;
+    private volatile long[] thread_nodes;
+    private volatile int[] thread_depths;
+    private volatile double first_move_cutoff_rate;
+
+    public AlphaBeta(final int max_depth)
+    {
+        this(max_depth, NO_LIMIT, NO_LIMIT);
+    }
+
+    public AlphaBeta(final int max_depth, final long time_limit_millis, final long node_limit)
+    {
+        this(max_depth, time_limit_millis, node_limit, 1, DEFAULT_HASH_SIZE_MB);
+    }
+
+    public AlphaBeta(final int max_depth, final long time_limit_millis, final long node_limit,
+                     final int threads, final int hash_size_mb)
+    {
+        this(max_depth, time_limit_millis, node_limit, threads, hash_size_mb, new BoardEvaluator());
+    }
+
+    //Every search thread evaluates with its own evaluator.newInstance(), kept from search to search so its caches stay warm
+    public AlphaBeta(final int max_depth, final long time_limit_millis, final long node_limit,
+                     final int threads, final int hash_size_mb, final Evaluator evaluator)
+    {
+        this.max_depth = Math.min(max_depth, SearchWorker.MAX_PLY - 1);
+        this.time_limit_millis = time_limit_millis;
+        this.node_limit = node_limit;
+        this.threads = Math.max(threads, 1);
+        this.transposition_table = new TranspositionTable(hash_size_mb);
+        this.evaluators = new Evaluator[this.threads];
+        for(int i=0; i<this.threads; i++)
+            this.evaluators[i] = evaluator.newInstance();
+        this.thread_nodes = new long[0];
+        this.thread_depths = new int[0];
+    }
+
+    @Override
+    public SearchResult execute(final Board board)
+    {
+        return execute(board, null);
+    }
+
+    public SearchResult execute(final Board board, final SearchListener listener)
+    {
+        return execute(board, listener, null);
+    }
+
+    /**
+     * listener, if not null, gets every iteration the main thread completes. cancelled, if not
+     * null, stops the search once set; unlike stop() it also catches a cancel that comes before
+     * this search has started, so set it and then call stop().
+     */
+    public SearchResult execute(final Board board, final SearchListener listener, final AtomicBoolean cancelled)
+    {
+        final SearchControl control = new SearchControl(this.time_limit_millis, this.node_limit);
+        this.control = control;
+        //Checked only after publishing the control, so a later cancel is seen by stop() instead
+        if(cancelled != null && cancelled.get())
+            control.stop();
+        this.transposition_table.newSearch();
+        final SearchWorker main_worker = new SearchWorker(board, control, this.transposition_table, this.evaluators[0]);
+        if(main_worker.getRootMoves().isEmpty())
+        {
+            final int score = board.getCurrentPlayer().isInCheck() ? -SearchResult.MATE_SCORE : SearchWorker.DRAW_SCORE;
+            return new SearchResult(Move.NULL_MOVE, score, 0, Collections.<Move>emptyList(), 0, 0);
+        }
+
+        final SearchWorker[] workers = new SearchWorker[this.threads];
+        final Thread[] helpers = new Thread[this.threads - 1];
+        workers[0] = main_worker;
+        for(int i=1; i<this.threads; i++)
+        {
+            final SearchWorker helper_worker = new SearchWorker(board, control, this.transposition_table,
+                                                                this.evaluators[i]);
+            final int start_depth = 1 + i % 2;
+            workers[i] = helper_worker;
+            helpers[i - 1] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    iterate(board, helper_worker, control, start_depth, false, null);
+                }
+            }, "search-helper-" + i);
+            helpers[i - 1].setDaemon(true);
+            helpers[i - 1].start();
+        }
+
+        iterate(board, main_worker, control, 1, true, listener);
+        control.stop();
+        joinHelpers(helpers);
+        return collectResult(board, workers, control);
+    }
+
+    //Only the main thread ends the search early; helpers keep deepening until it stops them
+    private void iterate(final Board board, final SearchWorker worker, final SearchControl control, final int start_depth,
+                         final boolean is_main, final SearchListener listener)
+    {
+        for(int depth=start_depth; depth<=this.max_depth && !control.isStopped(); depth++)
+        {
+            final int score = worker.searchRoot(depth);
+            if(worker.isAborted())
+                break;
+            if(listener != null)
+                listener.onIterationComplete(createResult(board, worker.getCompletedPrincipalVariation(), score, depth,
+                                                          control.getReportedNodes() + worker.getUnreportedNodes(),
+                                                          control.getElapsedNanos()));
+            //A forced mate found at this depth will not get any shorter
+            if(is_main && (SearchResult.isMateScore(score) || !control.hasTimeForNextIteration()))
+                break;
+        }
+    }
+
+    private static void joinHelpers(final Thread[] helpers)
+    {
+        boolean interrupted = false;
+        for(final Thread helper : helpers)
+        {
+            while(true)
+            {
+                try
+                {
+                    helper.join();
+                    break;
+                }
+                catch(final InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private SearchResult collectResult(final Board board, final SearchWorker[] workers, final SearchControl control)
+    {
+        final long[] thread_nodes = new long[workers.length];
+        final int[] thread_depths = new int[workers.length];
+        long total_nodes = 0;
+        long cutoffs = 0;
+        long first_move_cutoffs = 0;
+        SearchWorker best_worker = workers[0];
+        for(int i=0; i<workers.length; i++)
+        {
+            thread_nodes[i] = workers[i].getNodes();
+            thread_depths[i] = workers[i].getCompletedDepth();
+            total_nodes += thread_nodes[i];
+            cutoffs += workers[i].getMoveOrdering().getCutoffs();
+            first_move_cutoffs += workers[i].getMoveOrdering().getFirstMoveCutoffs();
+            if(workers[i].getCompletedDepth() > best_worker.getCompletedDepth())
+                best_worker = workers[i];
+        }
+        this.thread_nodes = thread_nodes;
+        this.thread_depths = thread_depths;
+        this.first_move_cutoff_rate = cutoffs == 0 ? 0.0 : first_move_cutoffs / (double) cutoffs;
+        return createResult(board, best_worker.getCompletedPrincipalVariation(), best_worker.getCompletedScore(),
+                            best_worker.getCompletedDepth(), total_nodes, control.getElapsedNanos());
+    }
+
+    //Asks a running execute to return its last completed iteration as soon as possible
+    public void stop()
+    {
+        final SearchControl control = this.control;
+        if(control != null)
+            control.stop();
+    }
+
+    //Forgets everything learned by earlier searches, e.g. before starting a new game
+    public void clearHashTable()
+    {
+        this.transposition_table.clear();
+        for(final Evaluator evaluator : this.evaluators)
+        {
+            if(evaluator instanceof BoardEvaluator)
+                ((BoardEvaluator) evaluator).getPawnHashTable().clear();
+        }
+    }
+
+    public TranspositionTable getTranspositionTable()
+    {
+        return this.transposition_table;
+    }
+
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    //Nodes searched by each thread in the last execute, main thread first
+    public long[] getThreadNodes()
+    {
+        return this.thread_nodes.clone();
+    }
+
+    //Deepest completed iteration of each thread in the last execute, main thread first
+    public int[] getThreadDepths()
+    {
+        return this.thread_depths.clone();
+    }
+
+    //Share of the last execute's beta cutoffs that came from the first move searched
+    public double getFirstMoveCutoffRate()
+    {
+        return this.first_move_cutoff_rate;
+    }
+
+    //Share of pawn structure lookups answered by the pawn hash tables since they were created or last cleared
+    public double getPawnHashHitRate()
+    {
+        long probes = 0;
+        long hits = 0;
+        for(final Evaluator evaluator : this.evaluators)
+        {
+            if(evaluator instanceof BoardEvaluator)
+            {
+                final PawnHashTable pawn_hash_table = ((BoardEvaluator) evaluator).getPawnHashTable();
+                probes += pawn_hash_table.getProbes();
+                hits += pawn_hash_table.getHits();
+            }
+        }
+        return probes == 0 ? 0.0 : hits / (double) probes;
+    }
+
+    static SearchResult createResult(final Board board, final int[] principal_variation, final int score, final int depth,
+                                     final long nodes, final long elapsed_nanos)
+    {
+        final List<Move> moves = new ArrayList<>();
+        Board current_board = board;
+        for(final int encoded_move : principal_variation)
+        {
+            final Move move = Move.MoveFactory.createMove(current_board, encoded_move);
+            final MoveTransition transition = current_board.getCurrentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone())
+                break;
+            moves.add(move);
+            current_board = transition.getTransitionBoard();
+        }
+        final Move best_move = moves.isEmpty() ? Move.NULL_MOVE : moves.get(0);
+        return new SearchResult(best_move, score, depth, moves, nodes, elapsed_nanos / 1000000L);
+    }
+}
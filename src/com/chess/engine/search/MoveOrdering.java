@@ -0,0 +1,116 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.StagedMoveGenerator;
+
+/**
+ * What one search thread has learned about which quiet moves cause cutoffs: two killer moves per
+ * ply, a butterfly history table per side (indexed by from and to tile) and a counter-move per
+ * side for each opponent move. Captures need none of this, they are ordered by most valuable
+ * victim / least valuable attacker in StagedMoveGenerator.
+ *
+ * Also counts how often a cutoff came from the first move searched, the usual measure of how
+ * good the ordering is.
+ */
+final class MoveOrdering
+{
+    //History scores are halved once any of them passes this, so recent cutoffs outweigh old ones
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int BUTTERFLY_SIZE = StagedMoveGenerator.BUTTERFLY_MASK + 1;
+
+    private final int[][] killers;
+    private final int[][] history;
+    private final int[][] counter_moves;
+    private long cutoffs;
+    private long first_move_cutoffs;
+
+    MoveOrdering()
+    {
+        this.killers = new int[SearchWorker.MAX_PLY][2];
+        this.history = new int[2][BUTTERFLY_SIZE];
+        this.counter_moves = new int[2][BUTTERFLY_SIZE];
+    }
+
+    int getFirstKiller(final int ply)
+    {
+        return this.killers[ply][0];
+    }
+
+    int getSecondKiller(final int ply)
+    {
+        return this.killers[ply][1];
+    }
+
+    int[] getHistory(final int alliance_index)
+    {
+        return this.history[alliance_index];
+    }
+
+    //The reply that last refuted the opponent's previous move, or NULL_MOVE
+    int getCounterMove(final int alliance_index, final int previous_move)
+    {
+        if(previous_move == MoveEncoding.NULL_MOVE)
+            return MoveEncoding.NULL_MOVE;
+        return this.counter_moves[alliance_index][previous_move & StagedMoveGenerator.BUTTERFLY_MASK];
+    }
+
+    static boolean isQuiet(final int move)
+    {
+        return !MoveEncoding.isCapture(move) && !MoveEncoding.isPromotion(move);
+    }
+
+    /**
+     * Records a beta cutoff by move, the move_count-th move searched at the node. A quiet move
+     * becomes a killer and counter-move and gains history, and the quiet moves tried before it
+     * (the first quiet_count of tried_quiets) lose history, since they failed to cut off.
+     */
+    void updateCutoff(final int alliance_index, final int ply, final int previous_move, final int move, final int depth,
+                      final int move_count, final int[] tried_quiets, final int quiet_count)
+    {
+        this.cutoffs++;
+        if(move_count == 1)
+            this.first_move_cutoffs++;
+        if(!isQuiet(move))
+            return;
+
+        if(this.killers[ply][0] != move)
+        {
+            this.killers[ply][1] = this.killers[ply][0];
+            this.killers[ply][0] = move;
+        }
+        if(previous_move != MoveEncoding.NULL_MOVE)
+            this.counter_moves[alliance_index][previous_move & StagedMoveGenerator.BUTTERFLY_MASK] = move;
+
+        final int[] side_history = this.history[alliance_index];
+        final int bonus = depth * depth;
+        boolean overflow = false;
+        for(int i=0; i<quiet_count; i++)
+        {
+            final int index = tried_quiets[i] & StagedMoveGenerator.BUTTERFLY_MASK;
+            if(tried_quiets[i] != move)
+                overflow |= (side_history[index] -= bonus) <= -HISTORY_LIMIT;
+        }
+        overflow |= (side_history[move & StagedMoveGenerator.BUTTERFLY_MASK] += bonus) >= HISTORY_LIMIT;
+        if(overflow)
+            ageHistory();
+    }
+
+    private void ageHistory()
+    {
+        for(final int[] side_history : this.history)
+        {
+            for(int i=0; i<side_history.length; i++)
+                side_history[i] /= 2;
+        }
+    }
+
+    long getCutoffs()
+    {
+        return this.cutoffs;
+    }
+
+    long getFirstMoveCutoffs()
+    {
+        return this.first_move_cutoffs;
+    }
+}
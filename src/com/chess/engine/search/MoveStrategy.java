@@ -0,0 +1,12 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+
+/**
+ * Something that picks a move for the side to move on a board: a computer opponent or an
+ * analysis engine. The result carries the chosen move together with its score and line.
+ */
+public interface MoveStrategy
+{
+    SearchResult execute(Board board);
+}
@@ -0,0 +1,68 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.perft.PerftPosition;
+
+/**
+ * Time-to-depth benchmark of the Lazy SMP search: every reference position is searched to the
+ * same fixed depth with 1, 2, 4... threads on an empty hash table, and each thread count is
+ * reported as a speedup over the single-threaded time.
+ *
+ * Usage: SearchBenchmark [depth] [max_threads] [hash_mb]
+ */
+public final class SearchBenchmark
+{
+    private SearchBenchmark()
+    {
+        throw new RuntimeException("SearchBenchmark class cannot be instantiated.");
+    }
+
+    public static void main(final String[] args)
+    {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        final int max_threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int hash_size_mb = args.length > 2 ? Integer.parseInt(args[2]) : AlphaBeta.DEFAULT_HASH_SIZE_MB;
+
+        //Warm the JIT up first, or the single-threaded run pays for the compilation of everything
+        final AlphaBeta warm_up = new AlphaBeta(Math.max(depth - 1, 1), AlphaBeta.NO_LIMIT, AlphaBeta.NO_LIMIT, 1, hash_size_mb);
+        for(final PerftPosition position : PerftPosition.values())
+            warm_up.execute(position.createBoard());
+
+        long single_thread_millis = 0;
+        for(int threads=1; threads<=max_threads; threads*=2)
+        {
+            final AlphaBeta search = new AlphaBeta(depth, AlphaBeta.NO_LIMIT, AlphaBeta.NO_LIMIT, threads, hash_size_mb);
+            long total_millis = 0;
+            long total_nodes = 0;
+            for(final PerftPosition position : PerftPosition.values())
+            {
+                final Board board = position.createBoard();
+                search.clearHashTable();
+                final SearchResult result = search.execute(board);
+                total_millis += result.getTimeMillis();
+                total_nodes += result.getNodes();
+                final TranspositionTable transposition_table = search.getTranspositionTable();
+                System.out.println(String.format("%d thread(s) %-10s %s  hashfull %d hash hits %.1f%% pawn hash hits %.1f%% first move cutoffs %.1f%%  per thread: %s",
+                                                 threads, position, result, transposition_table.getFillPermill(),
+                                                 100.0 * transposition_table.getHitRate(), 100.0 * search.getPawnHashHitRate(),
+                                                 100.0 * search.getFirstMoveCutoffRate(),
+                                                 formatThreadNodes(search.getThreadNodes())));
+            }
+            if(threads == 1)
+                single_thread_millis = total_millis;
+            System.out.println(String.format("%d thread(s): depth %d in %,d ms, %,d nodes, speedup %.2fx%n", threads, depth,
+                                             total_millis, total_nodes, single_thread_millis / (double) Math.max(total_millis, 1L)));
+        }
+    }
+
+    private static String formatThreadNodes(final long[] thread_nodes)
+    {
+        final StringBuilder s_builder = new StringBuilder();
+        for(int i=0; i<thread_nodes.length; i++)
+        {
+            if(i > 0)   s_builder.append('/');
+            s_builder.append(thread_nodes[i]);
+        }
+        return s_builder.toString();
+    }
+}
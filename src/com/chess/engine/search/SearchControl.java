@@ -0,0 +1,62 @@
+package com.chess.engine.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time and node budget of one search, shared by everything searching it. Workers report
+ * their nodes in batches, so the budget is checked without a shared write per node.
+ */
+final class SearchControl
+{
+    private final long start_time;
+    private final long time_limit_nanos;
+    private final long node_limit;
+    private final AtomicLong reported_nodes;
+    private volatile boolean stopped;
+
+    SearchControl(final long time_limit_millis, final long node_limit)
+    {
+        this.start_time = System.nanoTime();
+        this.time_limit_nanos = time_limit_millis == AlphaBeta.NO_LIMIT ? AlphaBeta.NO_LIMIT : time_limit_millis * 1000000L;
+        this.node_limit = node_limit;
+        this.reported_nodes = new AtomicLong();
+        this.stopped = false;
+    }
+
+    //Adds the caller's new nodes to the total and answers whether the search has to stop
+    boolean checkLimits(final long new_nodes)
+    {
+        if(this.stopped)
+            return true;
+        if(this.reported_nodes.addAndGet(new_nodes) >= this.node_limit || getElapsedNanos() >= this.time_limit_nanos)
+            this.stopped = true;
+        return this.stopped;
+    }
+
+    //An iteration usually takes longer than all the ones before it, so only start one with over half the time left
+    boolean hasTimeForNextIteration()
+    {
+        return !this.stopped && (this.time_limit_nanos == AlphaBeta.NO_LIMIT || getElapsedNanos() < this.time_limit_nanos / 2);
+    }
+
+    void stop()
+    {
+        this.stopped = true;
+    }
+
+    boolean isStopped()
+    {
+        return this.stopped;
+    }
+
+    //Nodes the workers have reported so far; each may have up to a check interval more of its own
+    long getReportedNodes()
+    {
+        return this.reported_nodes.get();
+    }
+
+    long getElapsedNanos()
+    {
+        return System.nanoTime() - this.start_time;
+    }
+}
@@ -0,0 +1,10 @@
+package com.chess.engine.search;
+
+/**
+ * Told about each iteration of a running search as soon as it completes, for showing the engine's
+ * current best line while it is still thinking. Called on the searching thread.
+ */
+public interface SearchListener
+{
+    void onIterationComplete(SearchResult result);
+}
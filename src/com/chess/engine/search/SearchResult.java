@@ -0,0 +1,88 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveEncoding;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Outcome of the deepest completed search iteration. The score is in centipawns from the side
+ * to move's point of view; mate scores sit just below MATE_SCORE, counting plies to the mate.
+ */
+public final class SearchResult
+{
+    public static final int MATE_SCORE = 32000;
+    public static final int MAX_MATE_PLY = 256;
+
+    private final Move best_move;
+    private final int score;
+    private final int depth;
+    private final List<Move> principal_variation;
+    private final long nodes;
+    private final long time_millis;
+
+    public SearchResult(final Move best_move, final int score, final int depth, final List<Move> principal_variation,
+                        final long nodes, final long time_millis)
+    {
+        this.best_move = best_move;
+        this.score = score;
+        this.depth = depth;
+        this.principal_variation = ImmutableList.copyOf(principal_variation);
+        this.nodes = nodes;
+        this.time_millis = time_millis;
+    }
+
+    public Move getBestMove() {
+        return this.best_move;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return this.principal_variation;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getTimeMillis() {
+        return this.time_millis;
+    }
+
+    public long getNodesPerSecond() {
+        return this.nodes * 1000 / Math.max(this.time_millis, 1);
+    }
+
+    public static boolean isMateScore(final int score) {
+        return Math.abs(score) >= MATE_SCORE - MAX_MATE_PLY;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder s_builder = new StringBuilder();
+        s_builder.append("depth ").append(this.depth);
+        if(isMateScore(this.score))
+        {
+            final int plies = MATE_SCORE - Math.abs(this.score);
+            s_builder.append(" score mate ").append(this.score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2);
+        }
+        else
+            s_builder.append(" score cp ").append(this.score);
+        s_builder.append(" nodes ").append(this.nodes)
+                 .append(" nps ").append(getNodesPerSecond())
+                 .append(" time ").append(this.time_millis)
+                 .append(" pv");
+        for(final Move move : this.principal_variation)
+            s_builder.append(' ').append(MoveEncoding.toString(move.toIntMove()));
+        return s_builder.toString();
+    }
+}
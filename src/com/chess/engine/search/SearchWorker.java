@@ -0,0 +1,360 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.IntMoveList;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.board.StagedMoveGenerator;
+import com.chess.engine.board.StaticExchange;
+import com.chess.engine.evaluation.Evaluator;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * One thread's negamax alpha-beta search over its own MutableBoard. Everything it touches per
+ * node (move generators, principal variation table, move ordering tables) is allocated once up
+ * front, one slot per ply; the transposition table is the only state shared with other workers.
+ */
+final class SearchWorker
+{
+    static final int MAX_PLY = 128;
+    static final int INFINITY = SearchResult.MATE_SCORE + 1;
+    static final int DRAW_SCORE = 0;
+
+    //Slack on top of the captured piece for positional gains when delta pruning
+    private static final int DELTA_MARGIN = 200;
+    //Nodes between two looks at the clock and the shared node budget
+    private static final long CHECK_INTERVAL_MASK = 1023;
+
+    private final MutableBoard board;
+    private final SearchControl control;
+    private final Evaluator evaluator;
+    private final TranspositionTable transposition_table;
+    private final IntMoveList root_moves;
+    private final StagedMoveGenerator[] move_generators;
+    private final int[][] pv_table;
+    private final int[] pv_length;
+    private final MoveOrdering move_ordering;
+    //Move made at each ply, so a node knows the opponent move it answers
+    private final int[] move_stack;
+    private final int[][] tried_quiets;
+    //Scratch space for static exchange evaluation in the quiescence search
+    private final int[] exchange_gains;
+    private long nodes;
+    private long unreported_nodes;
+    private boolean can_abort;
+    private boolean aborted;
+    private int completed_depth;
+    private int completed_score;
+    private int[] completed_principal_variation;
+
+    SearchWorker(final Board root_board, final SearchControl control, final TranspositionTable transposition_table,
+                 final Evaluator evaluator)
+    {
+        this.board = new MutableBoard(root_board);
+        this.control = control;
+        this.evaluator = evaluator;
+        this.evaluator.attach(this.board);
+        this.transposition_table = transposition_table;
+        this.root_moves = new IntMoveList();
+        this.board.generateLegalMoves(this.root_moves);
+        this.move_generators = new StagedMoveGenerator[MAX_PLY];
+        for(int i=0; i<MAX_PLY; i++)
+            this.move_generators[i] = new StagedMoveGenerator();
+        this.pv_table = new int[MAX_PLY][MAX_PLY];
+        this.pv_length = new int[MAX_PLY];
+        this.move_ordering = new MoveOrdering();
+        this.move_stack = new int[MAX_PLY];
+        this.tried_quiets = new int[MAX_PLY][IntMoveList.DEFAULT_CAPACITY];
+        this.exchange_gains = new int[StaticExchange.MAX_EXCHANGES];
+        this.completed_depth = 0;
+        this.completed_principal_variation = new int[0];
+    }
+
+    IntMoveList getRootMoves()
+    {
+        return this.root_moves;
+    }
+
+    /**
+     * Searches every root move to the given depth and returns the score of the best one, or
+     * an unusable value if the search was aborted part way (see isAborted). The first
+     * iteration is never aborted, so there is always at least one complete result.
+     */
+    int searchRoot(final int depth)
+    {
+        this.can_abort = depth > 1;
+        this.aborted = false;
+        this.pv_length[0] = 0;
+
+        int alpha = -INFINITY;
+        int best_index = 0;
+        for(int i=0; i<this.root_moves.size(); i++)
+        {
+            final int move = this.root_moves.get(i);
+            this.move_stack[0] = move;
+            this.board.makeMove(move);
+            final int score = -negamax(depth - 1, 1, -INFINITY, -alpha);
+            this.board.unmakeMove();
+            if(this.aborted)
+                return alpha;
+            if(score > alpha)
+            {
+                alpha = score;
+                best_index = i;
+                updatePrincipalVariation(0, move);
+            }
+        }
+        //Next iteration starts with this iteration's best move
+        for(int i=best_index; i>0; i--)
+            this.root_moves.swap(i, i - 1);
+        this.completed_depth = depth;
+        this.completed_score = alpha;
+        this.completed_principal_variation = getPrincipalVariation();
+        return alpha;
+    }
+
+    private int negamax(int depth, final int ply, int alpha, final int beta)
+    {
+        this.pv_length[ply] = ply;
+        if(countNodeAndCheckLimits())
+            return DRAW_SCORE;
+        if(this.board.getHalfmoveClock() >= 100 || this.board.isRepetition())
+            return DRAW_SCORE;
+        if(ply >= MAX_PLY - 1)
+            return evaluate();
+
+        //A stored result at least as deep as this one settles the node if its bound allows it
+        final long zobrist_key = this.board.getZobristKey();
+        final long entry = this.transposition_table.probe(zobrist_key);
+        final int tt_move = entry != TranspositionTable.MISS ? TranspositionTable.getMove(entry) : MoveEncoding.NULL_MOVE;
+        if(entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) >= depth)
+        {
+            final int tt_score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+            final int tt_bound = TranspositionTable.getBound(entry);
+            if(tt_bound == TranspositionTable.EXACT ||
+               (tt_bound == TranspositionTable.LOWER_BOUND && tt_score >= beta) ||
+               (tt_bound == TranspositionTable.UPPER_BOUND && tt_score <= alpha))
+                return tt_score;
+        }
+        final int original_depth = depth;
+        final int original_alpha = alpha;
+
+        //Check extension: never let the horizon fall in the middle of a check
+        final boolean in_check = this.board.isInCheck();
+        if(in_check)
+            depth++;
+        if(depth <= 0)
+            return quiescence(ply, alpha, beta);
+
+        final int alliance_index = this.board.getSideToMove().ordinal();
+        final int previous_move = this.move_stack[ply - 1];
+        final StagedMoveGenerator move_generator = this.move_generators[ply];
+        move_generator.reset(this.board, tt_move, this.move_ordering.getFirstKiller(ply), this.move_ordering.getSecondKiller(ply),
+                             this.move_ordering.getCounterMove(alliance_index, previous_move),
+                             this.move_ordering.getHistory(alliance_index));
+        final int[] tried_quiets = this.tried_quiets[ply];
+        int quiet_count = 0;
+        int best_score = -INFINITY;
+        int best_move = tt_move;
+        int move_count = 0;
+        int move;
+        while((move = move_generator.nextMove()) != MoveEncoding.NULL_MOVE)
+        {
+            move_count++;
+            if(MoveOrdering.isQuiet(move) && quiet_count < tried_quiets.length)
+                tried_quiets[quiet_count++] = move;
+            this.move_stack[ply] = move;
+            this.board.makeMove(move);
+            final int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            this.board.unmakeMove();
+            if(this.aborted)
+                return DRAW_SCORE;
+
+            if(score > best_score)
+            {
+                best_score = score;
+                best_move = move;
+                if(score > alpha)
+                {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if(score >= beta)
+                    {
+                        this.move_ordering.updateCutoff(alliance_index, ply, previous_move, move, depth,
+                                                        move_count, tried_quiets, quiet_count);
+                        break;
+                    }
+                }
+            }
+        }
+        if(move_count == 0)
+            return in_check ? -SearchResult.MATE_SCORE + ply : DRAW_SCORE;
+
+        final int bound = best_score >= beta ? TranspositionTable.LOWER_BOUND :
+                          best_score > original_alpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        this.transposition_table.store(zobrist_key, best_move, scoreToTable(best_score, ply), original_depth, bound);
+        return best_score;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet enough for the static
+     * evaluation to mean something. The side to move may always stand pat on the evaluation
+     * instead of capturing, except in check, where every evasion is searched.
+     */
+    private int quiescence(final int ply, int alpha, final int beta)
+    {
+        this.pv_length[ply] = ply;
+        if(countNodeAndCheckLimits())
+            return DRAW_SCORE;
+        if(ply >= MAX_PLY - 1)
+            return evaluate();
+
+        final boolean in_check = this.board.isInCheck();
+        final StagedMoveGenerator move_generator = this.move_generators[ply];
+        int best_score;
+        int stand_pat = -INFINITY;
+        if(in_check)
+        {
+            move_generator.reset(this.board, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE);
+            best_score = -INFINITY;
+        }
+        else
+        {
+            stand_pat = evaluate();
+            if(stand_pat >= beta)
+                return stand_pat;
+            if(stand_pat > alpha)
+                alpha = stand_pat;
+            move_generator.resetCaptures(this.board);
+            best_score = stand_pat;
+        }
+
+        int move_count = 0;
+        int move;
+        while((move = move_generator.nextMove()) != MoveEncoding.NULL_MOVE)
+        {
+            move_count++;
+            if(!in_check)
+            {
+                //Delta pruning: even winning the captured piece for free would not reach alpha
+                if(!MoveEncoding.isPromotion(move) && stand_pat + getCapturedValue(move) + DELTA_MARGIN <= alpha)
+                    continue;
+                //SEE pruning: the exchange this capture starts loses material
+                if(StaticExchange.evaluate(this.board, move, this.exchange_gains) < 0)
+                    continue;
+            }
+            this.move_stack[ply] = move;
+            this.board.makeMove(move);
+            final int score = -quiescence(ply + 1, -beta, -alpha);
+            this.board.unmakeMove();
+            if(this.aborted)
+                return DRAW_SCORE;
+
+            if(score > best_score)
+            {
+                best_score = score;
+                if(score > alpha)
+                {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if(score >= beta)
+                        break;
+                }
+            }
+        }
+        if(in_check && move_count == 0)
+            return -SearchResult.MATE_SCORE + ply;
+        return best_score;
+    }
+
+    private int getCapturedValue(final int move)
+    {
+        if(MoveEncoding.isEnPassant(move))
+            return StaticExchange.getPieceValue(PieceType.PAWN.ordinal());
+        final int victim = this.board.getPieceIndex(MoveEncoding.getDestinationCoordinate(move));
+        return victim == MutableBoard.NO_PIECE ? 0 : StaticExchange.getPieceValue(victim % BitBoardUtils.NUM_PIECE_TYPES);
+    }
+
+    //Mate scores are stored relative to the node rather than the root, so they stay right when reached by another path
+    private static int scoreToTable(final int score, final int ply)
+    {
+        if(score >= SearchResult.MATE_SCORE - SearchResult.MAX_MATE_PLY)     return score + ply;
+        if(score <= -SearchResult.MATE_SCORE + SearchResult.MAX_MATE_PLY)    return score - ply;
+        return score;
+    }
+
+    private static int scoreFromTable(final int score, final int ply)
+    {
+        if(score >= SearchResult.MATE_SCORE - SearchResult.MAX_MATE_PLY)     return score - ply;
+        if(score <= -SearchResult.MATE_SCORE + SearchResult.MAX_MATE_PLY)    return score + ply;
+        return score;
+    }
+
+    private int evaluate()
+    {
+        return this.evaluator.evaluate(this.board);
+    }
+
+    private boolean countNodeAndCheckLimits()
+    {
+        this.nodes++;
+        this.unreported_nodes++;
+        if(!this.aborted && this.can_abort && (this.nodes & CHECK_INTERVAL_MASK) == 0)
+        {
+            this.aborted = this.control.checkLimits(this.unreported_nodes);
+            this.unreported_nodes = 0;
+        }
+        return this.aborted;
+    }
+
+    private void updatePrincipalVariation(final int ply, final int move)
+    {
+        this.pv_table[ply][ply] = move;
+        System.arraycopy(this.pv_table[ply + 1], ply + 1, this.pv_table[ply], ply + 1, this.pv_length[ply + 1] - ply - 1);
+        this.pv_length[ply] = this.pv_length[ply + 1];
+    }
+
+    boolean isAborted()
+    {
+        return this.aborted;
+    }
+
+    long getNodes()
+    {
+        return this.nodes;
+    }
+
+    long getUnreportedNodes()
+    {
+        return this.unreported_nodes;
+    }
+
+    MoveOrdering getMoveOrdering()
+    {
+        return this.move_ordering;
+    }
+
+    int getCompletedDepth()
+    {
+        return this.completed_depth;
+    }
+
+    int getCompletedScore()
+    {
+        return this.completed_score;
+    }
+
+    //Best line of the deepest completed iteration, as MoveEncoding ints
+    int[] getCompletedPrincipalVariation()
+    {
+        return this.completed_principal_variation;
+    }
+
+    private int[] getPrincipalVariation()
+    {
+        final int[] principal_variation = new int[this.pv_length[0]];
+        System.arraycopy(this.pv_table[0], 0, principal_variation, 0, principal_variation.length);
+        return principal_variation;
+    }
+}
@@ -0,0 +1,200 @@
+package com.chess.engine.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of positions already searched, keyed by Zobrist key and shared by every search
+ * thread without a lock. Each entry is two longs in one flat array: the data (move, score,
+ * depth, bound and age packed together) and the key XORed with that data. Two threads writing
+ * the same slot at once can leave a key half of one entry next to the data half of another;
+ * the XOR then no longer gives back the probed key and the torn entry reads as a miss.
+ *
+ * Entries sit in buckets of four, 64 bytes. The JVM does not line array elements up with cache
+ * lines (they start after the array header), so a probe reads at most two adjacent lines, one
+ * more often than not. A new result replaces the entry of the same position when it is at least as deep or the old one is
+ * from an earlier search, and otherwise the shallowest entry of the bucket, older searches first.
+ */
+public final class TranspositionTable
+{
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+    //Data of every stored entry has a non-zero bound, so a real entry can never read as a miss
+    public static final long MISS = 0L;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+    private static final int MAX_DEPTH = 0xFF;
+    private static final int AGE_MASK = 0x3F;
+    //Entries sampled for the fill rate, the first buckets of the table
+    private static final int FILL_SAMPLE_SIZE = 1000;
+
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int AGE_SHIFT = 42;
+
+    private final long[] entries;
+    private final int bucket_mask;
+    private final LongAdder probes;
+    private final LongAdder hits;
+    private volatile int age;
+
+    public TranspositionTable(final int size_mb)
+    {
+        final long requested_buckets = Math.max(1L, (long) size_mb * 1024 * 1024 / (BYTES_PER_ENTRY * BUCKET_SIZE));
+        final int buckets = Integer.highestOneBit((int) Math.min(requested_buckets, 1 << 26));
+        this.entries = new long[buckets * BUCKET_SIZE * LONGS_PER_ENTRY];
+        this.bucket_mask = buckets - 1;
+        this.probes = new LongAdder();
+        this.hits = new LongAdder();
+        this.age = 0;
+    }
+
+    private int bucketStart(final long zobrist_key)
+    {
+        return ((int) zobrist_key & this.bucket_mask) * BUCKET_SIZE * LONGS_PER_ENTRY;
+    }
+
+    //Packed data of the position's entry, or MISS; unpack it with the static getters
+    public long probe(final long zobrist_key)
+    {
+        this.probes.increment();
+        final int start = bucketStart(zobrist_key);
+        for(int i=start; i<start + BUCKET_SIZE * LONGS_PER_ENTRY; i+=LONGS_PER_ENTRY)
+        {
+            final long data = this.entries[i + 1];
+            if((this.entries[i] ^ data) == zobrist_key && data != MISS)
+            {
+                this.hits.increment();
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    public void store(final long zobrist_key, final int move, final int score, final int depth, final int bound)
+    {
+        final int current_age = this.age;
+        final int start = bucketStart(zobrist_key);
+        int replace = start;
+        int replace_worth = Integer.MAX_VALUE;
+        for(int i=start; i<start + BUCKET_SIZE * LONGS_PER_ENTRY; i+=LONGS_PER_ENTRY)
+        {
+            final long old_data = this.entries[i + 1];
+            if((this.entries[i] ^ old_data) == zobrist_key || old_data == MISS)
+            {
+                if(old_data != MISS && depth < getDepth(old_data) && getAge(old_data) == current_age)
+                {
+                    //Keep the deeper result, but a new best move is still better than none
+                    if(move == 0 || getMove(old_data) == move)
+                        return;
+                    write(i, zobrist_key, (old_data & ~0xFFFFL) | move);
+                    return;
+                }
+                replace = i;
+                break;
+            }
+            //Every search an entry has sat unused counts as several plies of depth lost
+            final int worth = getDepth(old_data) - 8 * ((current_age - getAge(old_data)) & AGE_MASK);
+            if(worth < replace_worth)
+            {
+                replace = i;
+                replace_worth = worth;
+            }
+        }
+        write(replace, zobrist_key, pack(move, score, depth, bound, current_age));
+    }
+
+    private void write(final int index, final long zobrist_key, final long data)
+    {
+        this.entries[index] = zobrist_key ^ data;
+        this.entries[index + 1] = data;
+    }
+
+    private static long pack(final int move, final int score, final int depth, final int bound, final int age)
+    {
+        return (move & 0xFFFFL) |
+               ((score & 0xFFFFL) << SCORE_SHIFT) |
+               ((long) Math.min(Math.max(depth, 0), MAX_DEPTH) << DEPTH_SHIFT) |
+               ((long) bound << BOUND_SHIFT) |
+               ((long) age << AGE_SHIFT);
+    }
+
+    public static int getMove(final long data)
+    {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int getScore(final long data)
+    {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth(final long data)
+    {
+        return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    public static int getBound(final long data)
+    {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int getAge(final long data)
+    {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    //Called once per search, so entries left over from earlier searches get replaced first
+    public void newSearch()
+    {
+        this.age = (this.age + 1) & AGE_MASK;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(this.entries, 0L);
+        this.probes.reset();
+        this.hits.reset();
+        this.age = 0;
+    }
+
+    public int getCapacity()
+    {
+        return this.entries.length / LONGS_PER_ENTRY;
+    }
+
+    //Permille of sampled entries written by the current search
+    public int getFillPermill()
+    {
+        final int sampled = Math.min(FILL_SAMPLE_SIZE, getCapacity());
+        final int current_age = this.age;
+        int filled = 0;
+        for(int i=0; i<sampled; i++)
+        {
+            final long data = this.entries[i * LONGS_PER_ENTRY + 1];
+            if(data != MISS && getAge(data) == current_age)
+                filled++;
+        }
+        return filled * 1000 / sampled;
+    }
+
+    public long getProbes()
+    {
+        return this.probes.sum();
+    }
+
+    public long getHits()
+    {
+        return this.hits.sum();
+    }
+
+    public double getHitRate()
+    {
+        final long probes = getProbes();
+        return probes == 0 ? 0.0 : getHits() / (double) probes;
+    }
+}
@@ -2,6 +2,7 @@ package com.chess.gui;
 
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.player.GameState;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -61,7 +62,8 @@ public class GameHistoryPanel extends JPanel
     }
 
     private String calculateCheckAndCheckmateHash(Board board) {
-        if(board.getCurrentPlayer().isInCheckmate())    return "#";
+        final GameState game_state = board.getGameState();
+        if(game_state == GameState.CHECKMATE)   return "#";
         else if(board.getCurrentPlayer().isInCheck())   return "+";
         return "";
     }
@@ -1,11 +1,15 @@
 package com.chess.gui;
 
+import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.MoveTransition;
+import com.chess.engine.search.AlphaBeta;
+import com.chess.engine.search.SearchListener;
+import com.chess.engine.search.SearchResult;
 import com.google.common.collect.Lists;
 
 import javax.imageio.ImageIO;
@@ -21,6 +25,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static javax.swing.SwingUtilities.*;
 
@@ -36,14 +45,31 @@ public class Table
     private Piece selected_piece;
     private BoardDirection board_direction;
     private final MoveLog move_log;
+    //Boards before each logged move, for taking moves back
+    private final Deque<Board> board_history;
+    private final JLabel engine_status_label;
+
+    //The engine thinks on its own thread; the event dispatch thread only starts, cancels and applies its searches
+    private final ExecutorService engine_executor;
+    private final AlphaBeta engine;
+    private final boolean[] computer_players;
+    private Future<?> engine_task;
+    //Set when the current search is cancelled, so it stops and its results are dropped
+    private AtomicBoolean engine_cancelled;
 
     private static final Dimension OUTER_FRAME_DIMENSION = new Dimension(600, 600);
     private static final Dimension BOARD_PANEL_DIMENSION = new Dimension(400, 350);
     private static final Dimension TILE_PANEL_DIMENSION = new Dimension(10, 10);
 
+    private static final int ENGINE_MAX_DEPTH = 64;
+    private static final long ENGINE_TIME_MILLIS = 3000;
+    private static final int ENGINE_HASH_SIZE_MB = 64;
+
     private boolean highlight_legal_moves;
+    private boolean highlight_threats;
     private final Color light_tile_color = Color.decode("#FFFACD");
     private final Color dark_tile_color = Color.decode("#593E1A");
+    private final Color threat_border_color = Color.decode("#CC0000");
 
     private static String DEFAULT_PIECE_IMAGES_PATH = "/home/nandan/Codes/Chess/Icons/simple/";
 
@@ -56,6 +82,22 @@ public class Table
         this.game_frame.setLayout(new BorderLayout());
         this.board_direction = BoardDirection.NORMAL;
         this.highlight_legal_moves = true;
+        this.highlight_threats = false;
+        this.board_history = new ArrayDeque<>();
+        this.computer_players = new boolean[Alliance.values().length];
+        this.engine_executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "engine");
+                thread.setDaemon(true);
+                //Leave the event dispatch thread ahead of the search on a busy machine
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+        //One core is left for the event dispatch thread
+        this.engine = new AlphaBeta(ENGINE_MAX_DEPTH, ENGINE_TIME_MILLIS, AlphaBeta.NO_LIMIT,
+                                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1), ENGINE_HASH_SIZE_MB);
         //Menu Bar
         final JMenuBar table_menu_bar = createTableMenuBar();
         this.game_frame.setJMenuBar(table_menu_bar);
@@ -69,11 +111,15 @@ public class Table
         this.game_frame.setVisible(true);
         //Game History Panel
         this.game_frame.add(this.game_history_panel,BorderLayout.EAST);
+        //Engine Status
+        this.engine_status_label = new JLabel(" ");
+        this.game_frame.add(this.engine_status_label, BorderLayout.SOUTH);
     }
 
     private JMenuBar createTableMenuBar() {
         final JMenuBar table_menu_bar = new JMenuBar();
         table_menu_bar.add(createFileMenu());
+        table_menu_bar.add(createGameMenu());
         table_menu_bar.add(createPreferencesMenu());
 
         return table_menu_bar;
@@ -92,14 +138,162 @@ public class Table
         return file_menu;
     }
 
+    private JMenu createGameMenu() {
+        final JMenu game_menu = new JMenu("Game");
+        final JMenuItem new_game_menu_item = new JMenuItem("New Game");
+        new_game_menu_item.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                cancelEngine();
+                chessboard = Board.createStandardBoard();
+                move_log.clear();
+                board_history.clear();
+                //Queued behind the cancelled search, which may still be writing to the table
+                engine_executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        engine.clearHashTable();
+                    }
+                });
+                redrawGame();
+                startEngineIfNeeded();
+            }
+        });
+        game_menu.add(new_game_menu_item);
+
+        final JMenuItem undo_move_menu_item = new JMenuItem("Undo Move");
+        undo_move_menu_item.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                cancelEngine();
+                undoMove();
+                //Against the computer, take its reply back too so it is the player's turn again
+                while(isComputerTurn() && !board_history.isEmpty() && !computer_players[chessboard.getCurrentPlayerAlliance().opposite().ordinal()])
+                    undoMove();
+                redrawGame();
+                startEngineIfNeeded();
+            }
+        });
+        game_menu.add(undo_move_menu_item);
+
+        game_menu.addSeparator();
+
+        for(final Alliance alliance : Alliance.values())
+        {
+            final JCheckBoxMenuItem computer_player_checkbox_menu_item = new JCheckBoxMenuItem("Computer Plays " + (alliance.isWhite() ? "White" : "Black"), false);
+            computer_player_checkbox_menu_item.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent actionEvent) {
+                    cancelEngine();
+                    computer_players[alliance.ordinal()] = computer_player_checkbox_menu_item.isSelected();
+                    startEngineIfNeeded();
+                }
+            });
+            game_menu.add(computer_player_checkbox_menu_item);
+        }
+        return game_menu;
+    }
+
+    private void undoMove()
+    {
+        if(this.board_history.isEmpty())
+            return;
+        this.chessboard = this.board_history.pop();
+        this.move_log.removeMove(this.move_log.size() - 1);
+        this.source_tile = null;
+        this.destination_tile = null;
+        this.selected_piece = null;
+    }
+
+    private void playMove(final Move move, final Board transition_board)
+    {
+        this.board_history.push(this.chessboard);
+        this.chessboard = transition_board;
+        this.move_log.addMove(move);
+    }
+
+    private void redrawGame()
+    {
+        this.game_history_panel.redo(this.chessboard, this.move_log);
+        this.captured_pieces_panel.redo(this.move_log);
+        this.board_panel.drawBoard(this.chessboard);
+    }
+
+    private boolean isComputerTurn()
+    {
+        return this.computer_players[this.chessboard.getCurrentPlayerAlliance().ordinal()];
+    }
+
+    //Runs on the event dispatch thread, like every other method touching the game
+    private void startEngineIfNeeded()
+    {
+        if(!isComputerTurn() || this.chessboard.getGameState().isGameOver())
+            return;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        this.engine_cancelled = cancelled;
+        final Board board = this.chessboard;
+        this.engine_status_label.setText("Thinking...");
+        this.engine_task = this.engine_executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                if(cancelled.get())
+                    return;
+                final SearchResult result = engine.execute(board, new SearchListener() {
+                    @Override
+                    public void onIterationComplete(final SearchResult iteration) {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            @Override
+                            public void run() {
+                                if(!cancelled.get())
+                                    engine_status_label.setText(iteration.toString());
+                            }
+                        });
+                    }
+                }, cancelled);
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(!cancelled.get())
+                            playEngineMove(board, result);
+                    }
+                });
+            }
+        });
+    }
+
+    private void playEngineMove(final Board board, final SearchResult result)
+    {
+        if(board != this.chessboard || result == null || result.getBestMove() == Move.NULL_MOVE)
+            return;
+        final MoveTransition move_transition = this.chessboard.getCurrentPlayer().makeMove(result.getBestMove());
+        if(!move_transition.getMoveStatus().isDone())
+            return;
+        playMove(result.getBestMove(), move_transition.getTransitionBoard());
+        redrawGame();
+        startEngineIfNeeded();
+    }
+
+    //Drops the running search's result and asks it to stop; the engine thread is then free for the next one
+    private void cancelEngine()
+    {
+        if(this.engine_cancelled != null)
+            this.engine_cancelled.set(true);
+        if(this.engine_task != null)
+            this.engine_task.cancel(false);
+        this.engine.stop();
+        this.engine_status_label.setText(" ");
+    }
+
     private JMenu createPreferencesMenu() {
         final JMenu preferences_menu = new JMenu("Preferences");
         final JMenuItem flip_board_menu_item = new JMenuItem("Flip Board");
         flip_board_menu_item.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
+                cancelEngine();
                 board_direction = board_direction.opposite();
                 board_panel.drawBoard(chessboard);
+                startEngineIfNeeded();
             }
         });
         preferences_menu.add(flip_board_menu_item);
@@ -116,6 +310,18 @@ public class Table
         });
 
         preferences_menu.add(highlight_legal_moves_checkbox_menu_item);
+
+        final JCheckBoxMenuItem highlight_threats_checkbox_menu_item = new JCheckBoxMenuItem("Highlight Threatened Pieces", false);
+
+        highlight_threats_checkbox_menu_item.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                highlight_threats = highlight_threats_checkbox_menu_item.isSelected();
+                board_panel.drawBoard(chessboard);
+            }
+        });
+
+        preferences_menu.add(highlight_threats_checkbox_menu_item);
         return preferences_menu;
     }
 
@@ -233,7 +439,7 @@ public class Table
                         destination_tile = null;
                         selected_piece = null;
                     }
-                    else if(isLeftMouseButton(mouseEvent))
+                    else if(isLeftMouseButton(mouseEvent) && !isComputerTurn())
                     {
                         if(source_tile == null)
                         {
@@ -252,10 +458,7 @@ public class Table
                                                                             destination_tile.getCoordinate());
                             final MoveTransition move_transition = chessboard.getCurrentPlayer().makeMove(move);
                             if(move_transition.getMoveStatus().isDone())
-                            {
-                                chessboard = move_transition.getTransitionBoard();
-                                move_log.addMove(move);
-                            }
+                                playMove(move, move_transition.getTransitionBoard());
 
                             source_tile = null;
                             destination_tile = null;
@@ -264,9 +467,8 @@ public class Table
                         SwingUtilities.invokeLater(new Runnable() {
                             @Override
                             public void run() {
-                                game_history_panel.redo(chessboard, move_log);
-                                captured_pieces_panel.redo(move_log);
-                                board_panel.drawBoard(chessboard);
+                                redrawGame();
+                                startEngineIfNeeded();
                             }
                         });
                     }
@@ -299,6 +501,7 @@ public class Table
             assignTileColor();
             assignPieceIcon(board);
             highlightLegalMoves(board);
+            highlightThreats(board);
             validate();
             repaint();
         }
@@ -340,6 +543,17 @@ public class Table
             }
         }
 
+        //Outlines the side to move's pieces that the opponent attacks; a bit test on the board's attack map per tile
+        private void highlightThreats(final Board board)
+        {
+            final Piece piece = board.getPiece(this.tile_id);
+            if(highlight_threats && piece != null && piece.getPieceAlliance() == board.getCurrentPlayerAlliance() &&
+                    board.getAttackMap().isTileAttacked(this.tile_id, piece.getPieceAlliance().opposite()))
+                setBorder(BorderFactory.createLineBorder(threat_border_color, 2));
+            else
+                setBorder(null);
+        }
+
         private Collection<Move> pieceLegalMoves(final Board board)
         {
             if(selected_piece != null && selected_piece.getPieceAlliance() == board.getCurrentPlayer().getAlliance())